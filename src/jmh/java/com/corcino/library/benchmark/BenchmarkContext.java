@@ -0,0 +1,38 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.LibraryApplication;
+import com.corcino.library.dto.BookRequest;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Starts the application without a web server against the in-memory H2 database of the {@code bench} profile.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run(args);
+    }
+
+    static List<BookRequest> books(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> BookRequest.builder()
+                        .title(prefix + " title " + index)
+                        .author(prefix + " author " + (index % 100))
+                        .isbn(prefix + "-" + index)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+}
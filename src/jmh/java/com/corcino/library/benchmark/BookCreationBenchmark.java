@@ -0,0 +1,62 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.dto.BookBatchResponse;
+import com.corcino.library.dto.BookRequest;
+import com.corcino.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts {@value #BATCH} books per invocation either one createBook call at a time or through one bulk call,
+ * reported per book.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookCreationBenchmark {
+
+    private static final int BATCH = 500;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private int invocation;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int createPerRow() throws Exception {
+        int created = 0;
+        for (BookRequest bookRequest : nextBooks("row")) {
+            bookService.createBook(bookRequest);
+            created++;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public BookBatchResponse createBulk() {
+        return bookService.createBooks(nextBooks("bulk"));
+    }
+
+    private List<BookRequest> nextBooks(String path) {
+        return BenchmarkContext.books(path + "-" + invocation++, BATCH);
+    }
+
+}
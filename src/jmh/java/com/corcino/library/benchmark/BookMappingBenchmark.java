@@ -0,0 +1,68 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.dto.BookRequest;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.model.Book;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the reflective ModelMapper conversions the service used to run against the generated
+ * {@link BookMapper}. Run with the gc profiler to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private BookRequest bookRequest;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        bookMapper = Mappers.getMapper(BookMapper.class);
+
+        bookRequest = BookRequest.builder()
+                .title("Effective Java")
+                .author("Joshua Bloch")
+                .isbn("0134685997")
+                .build();
+
+        book = new Book();
+        book.setBookId(2L);
+        book.setTitle("Effective Java");
+        book.setAuthor("Joshua Bloch");
+        book.setIsbn("0134685997");
+    }
+
+    @Benchmark
+    public Book modelMapperToBook() {
+        return modelMapper.map(bookRequest, Book.class);
+    }
+
+    @Benchmark
+    public Book mapStructToBook() {
+        return bookMapper.toBook(bookRequest);
+    }
+
+    @Benchmark
+    public BookResponse modelMapperToResponse() {
+        return modelMapper.map(book, BookResponse.class);
+    }
+
+    @Benchmark
+    public BookResponse mapStructToResponse() {
+        return bookMapper.toResponse(book);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.dto.BookCursorPage;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.model.Book;
+import com.corcino.library.repository.BookRepository;
+import com.corcino.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int CATALOGUE_SIZE = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private Cache booksCache;
+    private javax.persistence.Cache secondLevelCache;
+    private List<Long> bookIds;
+    private Pageable firstPage;
+    private Pageable deepPage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookService = context.getBean(BookService.class);
+        bookService.createBooks(BenchmarkContext.books("seed", CATALOGUE_SIZE));
+        booksCache = context.getBean(CacheManager.class).getCache(CacheConfig.BOOKS_CACHE);
+        secondLevelCache = context.getBean(EntityManagerFactory.class).getCache();
+        bookIds = context.getBean(BookRepository.class).findAll().stream()
+                .map(Book::getBookId)
+                .collect(Collectors.toList());
+
+        firstPage = PageRequest.of(0, 20, Sort.Direction.ASC, "bookId");
+        deepPage = PageRequest.of(CATALOGUE_SIZE / 20 - 1, 20, Sort.Direction.ASC, "bookId");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // the same book every time, so after the first call this measures the books cache
+    @Benchmark
+    public BookResponse getBookByIdCacheHit() {
+        return bookService.getBookById(bookIds.get(0));
+    }
+
+    // a random book evicted from both caches first, so every call reads the row
+    @Benchmark
+    public BookResponse getBookByIdCacheMiss() {
+        Long bookId = bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+        booksCache.evict(bookId);
+        secondLevelCache.evict(Book.class, bookId);
+        return bookService.getBookById(bookId);
+    }
+
+    @Benchmark
+    public Page<BookResponse> listFirstPage() {
+        return bookService.listBooks(null, firstPage);
+    }
+
+    @Benchmark
+    public Page<BookResponse> listDeepPage() {
+        return bookService.listBooks(null, deepPage);
+    }
+
+    @Benchmark
+    public Page<BookResponse> listByAuthor() {
+        return bookService.listBooks("author 42", firstPage);
+    }
+
+    @Benchmark
+    public Page<BookResponse> searchByAuthor() {
+        return bookService.searchBooks("author 42", "author", firstPage);
+    }
+
+    @Benchmark
+    public BookCursorPage listFirstSliceByCursor() {
+        return bookService.listBooksByCursor(null, "bookId", 20);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.error.StandardError;
+import com.corcino.library.error.exception.ConflictException;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.handler.ExceptionHandlerController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full cost of an error response: throwing the exception and producing the JSON body in ExceptionHandlerController.
+ * Run with the gc profiler; {@code gc.alloc.rate.norm} is the allocation per error response. The {@code legacy*}
+ * methods rebuild the previous path (stack trace, formatter per call, StandardError serialized by Jackson) as the
+ * baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorRenderingBenchmark {
+
+    private ExceptionHandlerController exceptionHandler;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        exceptionHandler = new ExceptionHandlerController();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] notFound() {
+        try {
+            throw new ObjectNotFoundException("Book not found");
+        } catch (ObjectNotFoundException e) {
+            return exceptionHandler.handleNotFound(e).getBody();
+        }
+    }
+
+    @Benchmark
+    public byte[] conflict() {
+        try {
+            throw new ConflictException("Isbn already used");
+        } catch (ConflictException e) {
+            return exceptionHandler.handleConflict(e).getBody();
+        }
+    }
+
+    @Benchmark
+    public byte[] legacyNotFound() throws Exception {
+        try {
+            throw new RuntimeException("Book not found");
+        } catch (RuntimeException e) {
+            return objectMapper.writeValueAsBytes(legacyError("Object Not Found Exception. Check documentation", 404, e));
+        }
+    }
+
+    @Benchmark
+    public byte[] legacyConflict() throws Exception {
+        try {
+            throw new RuntimeException("Isbn already used");
+        } catch (RuntimeException e) {
+            return objectMapper.writeValueAsBytes(legacyError(e.getMessage(), 409, e));
+        }
+    }
+
+    private StandardError legacyError(String title, int status, Exception exception) {
+        return StandardError.builder()
+                .title(title)
+                .status(status)
+                .errorMessage(exception.getMessage())
+                .developerMessage(exception.getClass().getName())
+                .dateTime(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss").format(LocalDateTime.now()))
+                .build();
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.dto.BookBatchItemResult;
+import com.corcino.library.dto.BookBatchResponse;
+import com.corcino.library.dto.BookRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Closed-loop HTTP load against a running server, to compare the thread-pool and virtual-thread execution modes.
+ * Each client sends its next request as soon as the previous one is answered, so the number of clients is the
+ * concurrency the server sees. Clients are async exchanges rather than threads, which lets one driver hold 10k of
+ * them. After every stage the server's heap, non-heap and live platform threads are read from the actuator, and its
+ * resident set from /proc when {@code --pid} is given; thread stacks only show up in the latter.
+ * <p>
+ * Start a fresh server for each mode, with the same pool size and without the adaptive limit, so only the thread
+ * model differs, then run the driver against it:
+ * <pre>
+ * ./gradlew bootJar -PvirtualThreads
+ * java -jar library.jar --library.concurrency-limit.enabled=false
+ * java -Djdk.virtualThreadScheduler.parallelism=16 -jar library.jar --library.concurrency-limit.enabled=false \
+ *      --library.virtual-threads.enabled=true
+ * ./gradlew loadTest -PloadTestArgs="--label=platform --pid=12345 --seed=1000"
+ * </pre>
+ * Options: {@code --url}, {@code --path} ({@code {id}} is replaced by a random book id), {@code --clients}
+ * (comma separated stages), {@code --warmup}, {@code --duration}, {@code --seed} (books created first; otherwise ids
+ * come from {@code --ids}), {@code --pid} and {@code --label}. The stages are also written to benchmarks/results.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, String> options;
+    private final String url;
+    private final HttpClient client;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.url = option("url", "http://localhost:8080");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Arrays.stream(args)
+                .filter(arg -> arg.startsWith("--") && arg.contains("="))
+                .collect(Collectors.toMap(arg -> arg.substring(2, arg.indexOf('=')), arg -> arg.substring(arg.indexOf('=') + 1)));
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        List<Long> ids = options.containsKey("seed") ? seed(Integer.parseInt(options.get("seed")))
+                : LongStream.rangeClosed(1, Long.parseLong(option("ids", "1000"))).boxed().collect(Collectors.toList());
+        Duration warmup = Duration.parse("PT" + option("warmup", "15s"));
+        Duration duration = Duration.parse("PT" + option("duration", "60s"));
+
+        List<Map<String, Object>> stages = new ArrayList<>();
+        for (String clients : option("clients", "1000,5000,10000").split(",")) {
+            int concurrency = Integer.parseInt(clients.trim());
+            drive(concurrency, warmup, ids);
+            Stage stage = drive(concurrency, duration, ids);
+
+            Map<String, Object> result = stage.toMap(duration);
+            result.putAll(serverMemory());
+            stages.add(result);
+            System.out.println(result);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", option("label", "unlabelled"));
+        report.put("url", url + option("path", "/api/v1/book/{id}?fields=title,author,isbn"));
+        report.put("stages", stages);
+
+        File results = new File("benchmarks/results/load-" + option("label", "unlabelled") + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        results.getParentFile().mkdirs();
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(results, report);
+        System.out.println("Results written to " + results);
+    }
+
+    private Stage drive(int concurrency, Duration duration, List<Long> ids) throws InterruptedException {
+        Stage stage = new Stage(duration);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        for (int i = 0; i < concurrency; i++) {
+            next(stage, ids, deadline, done);
+        }
+        done.await();
+        return stage;
+    }
+
+    private void next(Stage stage, List<Long> ids, long deadline, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+
+        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + option("path",
+                        "/api/v1/book/{id}?fields=title,author,isbn").replace("{id}", String.valueOf(id))))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                // async, so a server that refuses connections outright does not turn the loop into a recursion
+                .whenCompleteAsync((response, error) -> {
+                    stage.record(System.nanoTime() - start, error == null && response.statusCode() < 400);
+                    next(stage, ids, deadline, done);
+                });
+    }
+
+    private List<Long> seed(int count) throws IOException, InterruptedException {
+        List<BookRequest> books = BenchmarkContext.books("load-" + System.currentTimeMillis(), count);
+        List<Long> ids = new ArrayList<>(count);
+
+        for (int from = 0; from < count; from += 1000) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/v1/book/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            MAPPER.writeValueAsBytes(books.subList(from, Math.min(count, from + 1000)))))
+                    .build();
+            BookBatchResponse response = MAPPER.readValue(
+                    client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body(), BookBatchResponse.class);
+            response.getItems().stream()
+                    .map(BookBatchItemResult::getBookId)
+                    .filter(Objects::nonNull)
+                    .forEach(ids::add);
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Seeding created no books");
+        }
+        return ids;
+    }
+
+    private Map<String, Object> serverMemory() throws IOException, InterruptedException {
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("heapUsedMb", metric("jvm.memory.used?tag=area:heap") / (1024 * 1024));
+        memory.put("nonHeapUsedMb", metric("jvm.memory.used?tag=area:nonheap") / (1024 * 1024));
+        memory.put("liveThreads", metric("jvm.threads.live"));
+        memory.put("peakThreads", metric("jvm.threads.peak"));
+
+        if (options.containsKey("pid")) {
+            Files.readAllLines(Path.of("/proc", options.get("pid"), "status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .findFirst()
+                    .ifPresent(line -> memory.put("rssMb", Long.parseLong(line.replaceAll("\\D", "")) / 1024));
+        }
+        return memory;
+    }
+
+    private double metric(String query) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/actuator/metrics/" + query)).GET().build();
+        JsonNode body = MAPPER.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return body.path("measurements").path(0).path("value").asDouble();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static final class Stage {
+
+        private final Timer latency;
+        private final LongAdder errors = new LongAdder();
+
+        private Stage(Duration duration) {
+            latency = Timer.builder("load.latency")
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .distributionStatisticExpiry(duration.multipliedBy(2))
+                    .distributionStatisticBufferLength(1)
+                    .register(new SimpleMeterRegistry());
+        }
+
+        private void record(long nanos, boolean success) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        private Map<String, Object> toMap(Duration duration) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", latency.count());
+            result.put("errors", errors.sum());
+            result.put("throughput", latency.count() / (double) duration.toSeconds());
+
+            Map<Double, Double> percentiles = new HashMap<>();
+            for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+                percentiles.put(percentile.percentile(), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            result.put("p50Ms", percentiles.get(0.5));
+            result.put("p99Ms", percentiles.get(0.99));
+            result.put("p999Ms", percentiles.get(0.999));
+            return result;
+        }
+    }
+
+}
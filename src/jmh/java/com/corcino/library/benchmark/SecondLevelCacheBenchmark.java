@@ -0,0 +1,99 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.model.Book;
+import com.corcino.library.repository.BookRepository;
+import com.corcino.library.service.BookService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Repository reads with the Hibernate second-level and query caches on and off. Besides throughput, the
+ * {@code statements} counter reports how many JDBC statements each run sent to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    private static final int CATALOGUE_SIZE = 10_000;
+    private static final int HOT_BOOKS = 1_000;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private Statistics statistics;
+    private List<Long> hotIds;
+    private Pageable firstPage;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long statements;
+
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        context.getBean(BookService.class).createBooks(BenchmarkContext.books("seed", CATALOGUE_SIZE));
+
+        bookRepository = context.getBean(BookRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        hotIds = bookRepository.findAll(PageRequest.of(0, HOT_BOOKS)).stream()
+                .map(Book::getBookId)
+                .collect(Collectors.toList());
+        firstPage = PageRequest.of(0, 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> findById(RoundTrips roundTrips) {
+        Long bookId = hotIds.get(ThreadLocalRandom.current().nextInt(hotIds.size()));
+        return counted(roundTrips, () -> bookRepository.findById(bookId));
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthor(RoundTrips roundTrips) {
+        String author = "seed author " + ThreadLocalRandom.current().nextInt(100);
+        return counted(roundTrips, () -> bookRepository.findByAuthorContaining(author, firstPage));
+    }
+
+    @Benchmark
+    public boolean existsByIsbn(RoundTrips roundTrips) {
+        String isbn = "seed-" + ThreadLocalRandom.current().nextInt(HOT_BOOKS);
+        return counted(roundTrips, () -> bookRepository.existsByIsbn(isbn));
+    }
+
+    private <T> T counted(RoundTrips roundTrips, Supplier<T> query) {
+        long before = statistics.getPrepareStatementCount();
+        T result = query.get();
+        roundTrips.statements += statistics.getPrepareStatementCount() - before;
+        return result;
+    }
+
+}
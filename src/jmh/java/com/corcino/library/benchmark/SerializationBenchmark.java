@@ -0,0 +1,62 @@
+package com.corcino.library.benchmark;
+
+import com.corcino.library.dto.BookResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of rendering a page of books to JSON with the same Jackson defaults Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<BookResponse> page;
+    private BookResponse book;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<BookResponse> books = IntStream.range(0, pageSize)
+                .mapToObj(index -> BookResponse.builder()
+                        .bookId((long) index)
+                        .title("Book title " + index)
+                        .author("Book author " + index)
+                        .isbn("978-" + index)
+                        .build())
+                .collect(Collectors.toList());
+
+        page = new PageImpl<>(books, PageRequest.of(0, pageSize, Sort.Direction.ASC, "bookId"), 10_000);
+        book = books.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeBook() throws Exception {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+}
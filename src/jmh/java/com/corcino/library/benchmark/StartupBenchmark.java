@@ -0,0 +1,45 @@
+package com.corcino.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boot time against an existing MySQL schema, managed either by Hibernate's ddl-auto update or by Flyway with
+ * ddl-auto validate. Needs the local MySQL used by the integration tests; each variant gets its own database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"hibernate-update", "flyway-validate"})
+    private String schemaManagement;
+
+    private String[] args;
+
+    @Setup
+    public void setUp() {
+        boolean flyway = "flyway-validate".equals(schemaManagement);
+        args = new String[]{
+                "--spring.datasource.url=jdbc:mysql://localhost:3306/library_startup_" + schemaManagement.replace('-', '_')
+                        + "?createDatabaseIfNotExist=true",
+                "--spring.datasource.username=root",
+                "--spring.datasource.password=root",
+                "--spring.flyway.enabled=" + flyway,
+                "--spring.jpa.hibernate.ddl-auto=" + (flyway ? "validate" : "update")
+        };
+
+        // the first start creates the schema, so the measured ones only pay for checking it
+        BenchmarkContext.start(args).close();
+    }
+
+    @Benchmark
+    public void start() {
+        BenchmarkContext.start(args).close();
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.corcino.library.cache;
+
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.event.BookChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts the cached {@code BookResponse} of a book once a write to it has committed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.CREATED || event.getType() == BookChangedEvent.Type.IMPORTED) {
+            return;
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (cache != null) {
+            log.debug("Evicting book {} from cache", event.getBookId());
+            cache.evict(event.getBookId());
+        }
+    }
+
+}
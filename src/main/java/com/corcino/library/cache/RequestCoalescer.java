@@ -0,0 +1,76 @@
+package com.corcino.library.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution: while a load for a key is running, concurrent callers asking for the same key wait for
+ * its result (or exception) instead of starting their own. Nothing is kept once the load finishes, so this only
+ * collapses simultaneous requests and never serves stale data.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestCoalescer {
+
+    public static final String REQUESTS = "library.coalescer.requests";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        List<Object> flightKey = Arrays.asList(operation, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+
+        if (running != null) {
+            counter(operation, "collapsed").increment();
+            return (T) await(running);
+        }
+
+        counter(operation, "executed").increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(String operation, String result) {
+        return Counter.builder(REQUESTS)
+                .description("Reads that ran a load, or were collapsed onto one already in flight")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
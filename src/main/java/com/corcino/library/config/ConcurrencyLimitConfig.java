@@ -0,0 +1,63 @@
+package com.corcino.library.config;
+
+import com.corcino.library.limit.ConcurrencyLimitInterceptor;
+import com.corcino.library.limit.ConcurrencyLimiter;
+import com.corcino.library.limit.GradientLimit;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Adaptive concurrency limits for the REST API, on unless {@code library.concurrency-limit.enabled} is false. The
+ * configurer is a bean method rather than this class itself, so controller slice tests do not pick it up.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    public static final String LIMIT = "library.concurrency.limit";
+    public static final String INFLIGHT = "library.concurrency.inflight";
+    public static final String REJECTED = "library.concurrency.rejected";
+
+    @Bean
+    public WebMvcConfigurer concurrencyLimitConfigurer(LibraryProperties libraryProperties, MeterRegistry meterRegistry) {
+        LibraryProperties.ConcurrencyLimit concurrencyLimit = libraryProperties.getConcurrencyLimit();
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(
+                limiter("read", concurrencyLimit.getRead(), concurrencyLimit, meterRegistry),
+                limiter("write", concurrencyLimit.getWrite(), concurrencyLimit, meterRegistry),
+                concurrencyLimit.getRetryAfter());
+
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    private static ConcurrencyLimiter limiter(String name, LibraryProperties.Limit limit,
+                                              LibraryProperties.ConcurrencyLimit concurrencyLimit,
+                                              MeterRegistry meterRegistry) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(name, new GradientLimit(limit.getInitial(), limit.getMin(),
+                limit.getMax(), concurrencyLimit.getSmoothing(), concurrencyLimit.getRttTolerance()));
+
+        Gauge.builder(LIMIT, limiter, ConcurrencyLimiter::getLimit)
+                .description("Requests currently allowed in flight")
+                .tag("kind", name)
+                .register(meterRegistry);
+        Gauge.builder(INFLIGHT, limiter, ConcurrencyLimiter::getInflight)
+                .tag("kind", name)
+                .register(meterRegistry);
+        FunctionCounter.builder(REJECTED, limiter, ConcurrencyLimiter::getRejected)
+                .description("Requests shed with a 503 because the limit was reached")
+                .tag("kind", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.corcino.library.config;
+
+import com.corcino.library.datasource.ConnectionUsageFilter;
+import com.corcino.library.datasource.InstrumentedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Counts connection checkouts per request. The pools themselves are wrapped, not the routing proxy, so only physical
+ * checkouts are counted whether or not the replica is enabled.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConnectionMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource ? new InstrumentedDataSource((HikariDataSource) bean) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public ConnectionUsageFilter connectionUsageFilter(MeterRegistry meterRegistry) {
+        return new ConnectionUsageFilter(meterRegistry);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.corcino.library.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Builds the JCache regions used by the Hibernate second-level and query caches from
+ * {@code library.hibernate-cache.regions}, so sizes and TTLs can differ per profile.
+ */
+@Configuration(proxyBeanMethods = false)
+public class HibernateCacheConfig {
+
+    public static final String HIT_RATIO = "library.hibernate.cache.hit.ratio";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(LibraryProperties libraryProperties) {
+        // providers hand out one manager per URI; a unique one keeps two contexts in the same JVM (tests, benchmarks)
+        // from sharing regions that may belong to different databases
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("library-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        libraryProperties.getHibernateCache().getRegions()
+                .forEach((name, region) -> cacheManager.createCache(name, toConfiguration(region)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                              LibraryProperties libraryProperties) {
+        return registry -> libraryProperties.getHibernateCache().getRegions().keySet().forEach(region ->
+                Gauge.builder(HIT_RATIO, () -> hitRatio(entityManagerFactory.getObject(), region))
+                        .description("Share of second-level or query cache lookups served from the region")
+                        .tag("region", region)
+                        .register(registry));
+    }
+
+    private CaffeineConfiguration<Object, Object> toConfiguration(LibraryProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+        if (region.getExpireAfterWrite() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    private double hitRatio(EntityManagerFactory entityManagerFactory, String region) {
+        CacheRegionStatistics statistics = entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics()
+                .getCacheRegionStatistics(region);
+        if (statistics == null) {
+            return Double.NaN;
+        }
+
+        long lookups = statistics.getHitCount() + statistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) statistics.getHitCount() / lookups;
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.corcino.library.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "library")
+public class LibraryProperties {
+
+    private Bulk bulk = new Bulk();
+    private Cursor cursor = new Cursor();
+    private MultiGet multiGet = new MultiGet();
+    private ChangeFeed changeFeed = new ChangeFeed();
+    private Export export = new Export();
+    private Importer importer = new Importer();
+    private Replica replica = new Replica();
+    private HibernateCache hibernateCache = new HibernateCache();
+    private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+    private VirtualThreads virtualThreads = new VirtualThreads();
+    private Metrics metrics = new Metrics();
+    private Reactive reactive = new Reactive();
+
+    @Data
+    public static class Bulk {
+
+        /** Maximum number of books accepted by a single bulk request. */
+        private int maxSize = 10000;
+
+        /** Rows flushed per JDBC batch; keep in line with hibernate.jdbc.batch_size. */
+        private int batchSize = 50;
+
+    }
+
+    @Data
+    public static class Cursor {
+
+        private int defaultSize = 20;
+        private int maxSize = 100;
+
+    }
+
+    @Data
+    public static class MultiGet {
+
+        /** Maximum number of ids resolved by a single multi-get request. */
+        private int maxIds = 100;
+
+    }
+
+    @Data
+    public static class ChangeFeed {
+
+        /** Number of past changes kept in memory so subscribers can resume from a sequence. */
+        private int history = 10000;
+
+        /** Changes queued per subscriber; a subscriber that falls further behind is disconnected. */
+        private int subscriberBuffer = 1000;
+
+        /** Lifetime of a stream before the client has to reconnect with Last-Event-ID. */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        private int dispatchThreads = 4;
+
+        /** Open streams at the same time; further subscribers get a 503. */
+        private int maxSubscribers = 200;
+
+    }
+
+    @Data
+    public static class Export {
+
+        /** Exports streaming at the same time; each holds a connection for its whole length. */
+        private int maxConcurrent = 4;
+
+    }
+
+    @Data
+    public static class Importer {
+
+        /** Rows validated together and inserted in one transaction. */
+        private int chunkSize = 1000;
+
+        /** Rows listed in a job's error report; further errors are only counted. */
+        private int maxErrors = 1000;
+
+        /** Imports running at the same time; further jobs wait in the queue. */
+        private int workerThreads = 2;
+
+        /** How long a finished job stays available for status polling. */
+        private Duration retention = Duration.ofHours(1);
+
+    }
+
+    @Data
+    public static class Replica {
+
+        /** Routes read-only transactions to the replica below; spring.datasource stays the primary. */
+        private boolean enabled = false;
+
+        private String url;
+        private String username;
+        private String password;
+
+        /** After a write, the same client reads from the primary for this long; zero disables the pinning. */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    }
+
+    @Data
+    public static class HibernateCache {
+
+        /** Second-level and query cache regions by name, created when the application starts. */
+        private Map<String, Region> regions = new LinkedHashMap<>();
+
+    }
+
+    @Data
+    public static class Region {
+
+        private long maximumSize = 1000;
+
+        /** Entries never expire when unset; the update timestamps region must stay that way. */
+        private Duration expireAfterWrite;
+
+    }
+
+    @Data
+    public static class ConcurrencyLimit {
+
+        /** Rejects API requests beyond an adaptive number in flight with a 503 instead of queueing them. */
+        private boolean enabled = true;
+
+        private Limit read = new Limit(20, 4, 200);
+        private Limit write = new Limit(10, 2, 50);
+
+        /** Weight of each adjustment; lower values react slower but oscillate less. */
+        private double smoothing = 0.2;
+
+        /** How much slower than the long-term latency requests may get before the limit starts shrinking. */
+        private double rttTolerance = 1.5;
+
+        /** Sent as Retry-After with every rejection. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private int initial;
+        private int min;
+        private int max;
+
+    }
+
+    @Data
+    public static class VirtualThreads {
+
+        /**
+         * Handles requests on virtual threads instead of Tomcat's thread pool; needs a {@code -PvirtualThreads}
+         * build, a Java 21 runtime and the concurrency limit turned off.
+         */
+        private boolean enabled = false;
+
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * Turns on hibernate.generate_statistics, which the hibernate.* meters read from. Collecting them costs on
+         * every session and statement, so only enable it where those meters are scraped.
+         */
+        private boolean hibernateStatistics = false;
+
+    }
+
+    @Data
+    public static class Reactive {
+
+        /** Serves the listing and single-book reads non-blocking, over R2DBC, on a port of their own. */
+        private boolean enabled = false;
+
+        private int port = 8081;
+
+        /** R2DBC url of the same database spring.datasource points to. */
+        private String url;
+        private String username;
+        private String password;
+
+        private int poolSize = 10;
+
+        /** Largest page a paged listing returns; listings without a size are streamed whole. */
+        private int maxPageSize = 2000;
+
+    }
+
+}
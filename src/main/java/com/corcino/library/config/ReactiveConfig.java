@@ -0,0 +1,78 @@
+package com.corcino.library.config;
+
+import com.corcino.library.controller.ReactiveBookHandler;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.repository.reactive.ReactiveBookRepository;
+import com.corcino.library.service.ReactiveBookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * The reactive read API, enabled with {@code library.reactive.enabled}: an R2DBC pool and repository next to the JPA
+ * ones, served by a Netty server on {@code library.reactive.port}. Spring Boot's R2DBC auto-configuration is excluded
+ * in {@link com.corcino.library.LibraryApplication}, since it would require an R2DBC url and register a second
+ * transaction manager even with the API off.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.reactive", name = "enabled", havingValue = "true")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveBookRepository.class)
+public class ReactiveConfig extends AbstractR2dbcConfiguration {
+
+    private final LibraryProperties.Reactive reactive;
+
+    public ReactiveConfig(LibraryProperties libraryProperties) {
+        this.reactive = libraryProperties.getReactive();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @Override
+    public ConnectionPool connectionFactory() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(reactive.getUrl()).mutate();
+        if (reactive.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, reactive.getUsername());
+        }
+        if (reactive.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, reactive.getPassword());
+        }
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("reactive")
+                .initialSize(reactive.getPoolSize())
+                .maxSize(reactive.getPoolSize())
+                .build());
+    }
+
+    @Bean
+    public ReactiveBookService reactiveBookService(ReactiveBookRepository reactiveBookRepository, BookMapper bookMapper,
+                                                   CacheManager cacheManager) {
+        return new ReactiveBookService(reactiveBookRepository, bookMapper, cacheManager);
+    }
+
+    @Bean
+    public ReactiveBookHandler reactiveBookHandler(ReactiveBookService reactiveBookService) {
+        return new ReactiveBookHandler(reactiveBookService, reactive.getMaxPageSize());
+    }
+
+    @Bean
+    public ReactiveHttpServer reactiveHttpServer(ReactiveBookHandler reactiveBookHandler, ObjectMapper objectMapper) {
+        // Boot's ObjectMapper, so both APIs render BookResponse the same way
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        return new ReactiveHttpServer(RouterFunctions.toHttpHandler(reactiveBookHandler.routes(), strategies),
+                reactive.getPort());
+    }
+
+}
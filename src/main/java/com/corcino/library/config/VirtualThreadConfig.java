@@ -0,0 +1,74 @@
+package com.corcino.library.config;
+
+import com.corcino.library.datasource.InstrumentedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.sql.SQLException;
+
+import static com.corcino.library.config.VirtualThreadExecutors.newVirtualThreadPerTaskExecutor;
+
+/**
+ * Runs request handling on virtual threads, enabled with {@code library.virtual-threads.enabled}. Tomcat gets a
+ * thread-per-task executor instead of its pool of platform threads and its connection cap is lifted, so the only
+ * bound left on blocking work is the connection pool; the MVC async executor (exports, change streams) follows.
+ * <p>
+ * Needs a build made with {@code -PvirtualThreads} and a Java 21 runtime. The adaptive concurrency limit has to be
+ * turned off: its limits were sized for a pool of platform threads and would cap the virtual threads at the same
+ * level, so startup fails when both are on. Connector/J 8.0 synchronizes around socket reads, which pins the carrier
+ * thread for the length of a query: keep {@code jdk.virtualThreadScheduler.parallelism} at least at the pool size, which is checked at startup.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "library.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    public VirtualThreadConfig(LibraryProperties libraryProperties) {
+        if (libraryProperties.getConcurrencyLimit().isEnabled()) {
+            throw new IllegalStateException("library.virtual-threads.enabled requires "
+                    + "library.concurrency-limit.enabled=false");
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<AbstractProtocol<?>> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor("http-vt-"));
+            protocolHandler.setMaxConnections(-1);
+        };
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor("task-vt-"));
+    }
+
+    // every pool is wrapped in an InstrumentedDataSource, so these are all the connections that can pin a carrier
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkCarrierParallelism(ApplicationReadyEvent event) throws SQLException {
+        int connections = 0;
+        for (InstrumentedDataSource dataSource : event.getApplicationContext()
+                .getBeansOfType(InstrumentedDataSource.class).values()) {
+            connections += dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        }
+
+        int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        if (parallelism < connections) {
+            log.warn("Virtual thread scheduler has {} carrier threads for {} pooled connections; queries pinned by the "
+                    + "JDBC driver can stall every other request. Set -Djdk.virtualThreadScheduler.parallelism={}",
+                    parallelism, connections, connections);
+        }
+    }
+
+}
@@ -1,19 +1,45 @@
 package com.corcino.library.controller;
 
+import com.corcino.library.dto.BookBatchResponse;
+import com.corcino.library.dto.BookBulkDeleteResponse;
+import com.corcino.library.dto.BookCursorPage;
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookImportStatus;
+import com.corcino.library.dto.BookMultiGetResponse;
 import com.corcino.library.dto.BookRequest;
 import com.corcino.library.dto.BookResponse;
+import com.corcino.library.dto.BookVersion;
 import com.corcino.library.dto.UpdateBookRequest;
+import com.corcino.library.error.exception.BadRequestException;
+import com.corcino.library.error.exception.PreconditionRequiredException;
+import com.corcino.library.feed.BookChangeFeed;
+import com.corcino.library.importer.BookImportJob;
+import com.corcino.library.importer.BookImporter;
+import com.corcino.library.service.BookExportService;
 import com.corcino.library.service.BookService;
+import com.corcino.library.util.ETagUtil;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import static org.springframework.data.domain.Sort.Direction.ASC;
 
@@ -23,18 +49,132 @@ import static org.springframework.data.domain.Sort.Direction.ASC;
 public class BookController {
 
     private BookService bookService;
+    private BookExportService bookExportService;
+    private BookImporter bookImporter;
+    private BookChangeFeed bookChangeFeed;
 
     @GetMapping
     public ResponseEntity<Page<BookResponse>> list(@RequestParam(required = false) String author,
                                                    @PageableDefault(sort = "bookId", direction = ASC) Pageable pageable) {
         Page<BookResponse> books = bookService.listBooks(author, pageable);
+        return ResponseEntity.ok()
+                .eTag(pageETag(books, author))
+                .body(books);
+    }
+
+    @GetMapping(params = {"fields", "!ids"})
+    public ResponseEntity<Page<Map<String, Object>>> listFields(@RequestParam String fields,
+                                                                @RequestParam(required = false) String author,
+                                                                @PageableDefault(sort = "bookId", direction = ASC) Pageable pageable) {
+        Page<Map<String, Object>> books = bookService.listBookFields(author, fields, pageable);
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping(params = {"ids", "fields"})
+    public ResponseEntity<BookMultiGetResponse> listByIdsWithFields() {
+        throw new BadRequestException("Field selection is not supported together with ids");
+    }
+
+    @GetMapping(params = {"ids", "!fields"})
+    public ResponseEntity<BookMultiGetResponse> listByIds(@RequestParam List<Long> ids) {
+        BookMultiGetResponse books = bookService.getBooksByIds(ids);
+        return ResponseEntity.ok(books);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<BookResponse>> search(@RequestParam(required = false) String q,
+                                                     @RequestParam(defaultValue = "all") String field,
+                                                     @PageableDefault(sort = "bookId", direction = ASC) Pageable pageable) {
+        Page<BookResponse> books = bookService.searchBooks(q, field, pageable);
+        return ResponseEntity.ok()
+                .eTag(pageETag(books, q, field))
+                .body(books);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<BookCursorPage> listByCursor(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "bookId") String sort,
+                                                       @RequestParam(required = false) Integer size) {
+        BookCursorPage books = bookService.listBooksByCursor(cursor, sort, size);
+        return ResponseEntity.ok()
+                .eTag(ETagUtil.fromBooks(books.getContent(), cursor, sort, books.getSize(), books.isHasNext()))
+                .body(books);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) Long since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return bookChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip) {
+        BookFileFormat fileFormat = BookFileFormat.fromName(format);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(fileFormat.getMediaType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("books." + fileFormat.getExtension())
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        Runnable releaseSlot = bookExportService.reserveSlot();
+        StreamingResponseBody body = outputStream -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                    bookExportService.exportBooks(fileFormat, gzipOutputStream);
+                    gzipOutputStream.finish();
+                } else {
+                    bookExportService.exportBooks(fileFormat, outputStream);
+                }
+            } finally {
+                releaseSlot.run();
+            }
+        };
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BookImportStatus> importBooks(@RequestParam(required = false) MultipartFile file,
+                                                        @RequestParam(required = false) String format,
+                                                        UriComponentsBuilder uriBuilder) throws IOException {
+        String fileName = file != null ? file.getOriginalFilename() : null;
+        BookFileFormat fileFormat = BookFileFormat.fromName(format != null ? format : StringUtils.getFilenameExtension(fileName));
+        BookImportJob job = bookImporter.submit(file, fileFormat);
+        URI uri = uriBuilder.path("/api/v1/book/import/{jobId}").buildAndExpand(job.getJobId()).toUri();
+        return ResponseEntity.accepted().location(uri).body(job.toStatus());
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<BookImportStatus> getImport(@PathVariable String jobId) {
+        return ResponseEntity.ok(bookImporter.getJob(jobId).toStatus());
+    }
+
     @GetMapping("/{bookId}")
-    public ResponseEntity<BookResponse> getById(@PathVariable Long bookId) {
+    public ResponseEntity<BookResponse> getById(@PathVariable Long bookId, WebRequest webRequest) {
+        if (isConditional(webRequest)) {
+            BookVersion bookVersion = bookService.getBookVersion(bookId);
+            if (webRequest.checkNotModified(ETagUtil.fromVersion(bookVersion.getVersion()),
+                    ETagUtil.toLastModified(bookVersion.getUpdatedAt()))) {
+                return null;
+            }
+        }
+
         BookResponse bookResponse = bookService.getBookById(bookId);
-        return ResponseEntity.ok(bookResponse);
+        return ResponseEntity.ok()
+                .eTag(ETagUtil.fromVersion(bookResponse.getVersion()))
+                .lastModified(ETagUtil.toLastModified(bookResponse.getUpdatedAt()))
+                .body(bookResponse);
+    }
+
+    @GetMapping(value = "/{bookId}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getFieldsById(@PathVariable Long bookId, @RequestParam String fields) {
+        Map<String, Object> book = bookService.getBookFieldsById(bookId, fields);
+        return ResponseEntity.ok(book);
     }
 
     @PostMapping
@@ -44,6 +184,12 @@ public class BookController {
         return ResponseEntity.created(uri).build();
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BookBatchResponse> createBulk(@RequestBody List<BookRequest> bookRequests) {
+        BookBatchResponse batchResponse = bookService.createBooks(bookRequests);
+        return ResponseEntity.ok(batchResponse);
+    }
+
     @PutMapping("/{bookId}")
     public ResponseEntity<String> update(@RequestBody @Valid UpdateBookRequest updateBook, @PathVariable Long bookId,
                                          UriComponentsBuilder uriBuilder) throws Exception {
@@ -52,49 +198,42 @@ public class BookController {
         return ResponseEntity.created(uri).build();
     }
 
+    @PatchMapping("/{bookId}")
+    public ResponseEntity<Void> patch(@RequestBody UpdateBookRequest patchBook, @PathVariable Long bookId,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            throw new PreconditionRequiredException("If-Match header with the book ETag is mandatory");
+        }
+
+        long version = bookService.patchBook(patchBook, bookId, ETagUtil.toVersion(ifMatch));
+        return ResponseEntity.noContent()
+                .eTag(ETagUtil.fromVersion(version))
+                .build();
+    }
+
     @DeleteMapping("/{bookId}")
     public ResponseEntity<Void> delete(@PathVariable Long bookId) {
         bookService.deleteBook(bookId);
         return ResponseEntity.noContent().build();
     }
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<BookBulkDeleteResponse> deleteBulk(@RequestParam List<Long> ids) {
+        BookBulkDeleteResponse deleteResponse = bookService.deleteBooks(ids);
+        return ResponseEntity.ok(deleteResponse);
+    }
 
+    private boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
 
+    private String pageETag(Page<BookResponse> books, Object... filters) {
+        Object[] listingMetadata = new Object[filters.length + 2];
+        System.arraycopy(filters, 0, listingMetadata, 0, filters.length);
+        listingMetadata[filters.length] = books.getTotalElements();
+        listingMetadata[filters.length + 1] = books.getPageable();
+        return ETagUtil.fromBooks(books.getContent(), listingMetadata);
+    }
 
+}
@@ -0,0 +1,194 @@
+package com.corcino.library.controller;
+
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.StandardError;
+import com.corcino.library.error.exception.BadRequestException;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.handler.ExceptionHandlerController;
+import com.corcino.library.service.ReactiveBookService;
+import com.corcino.library.util.DateUtil;
+import com.corcino.library.util.ETagUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The reactive read API: the listing and single-book reads of {@link BookController}, with the same parameters,
+ * defaults, bodies and error responses. Multi-gets and field selection are servlet-only and rejected here. A client
+ * that accepts NDJSON opts into streaming the whole listing instead of a page; errors can only change the status
+ * before the first book is written.
+ */
+@Slf4j
+public class ReactiveBookHandler {
+
+    private static final String BOOK_API = "/api/v1/book";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final Sort DEFAULT_SORT = Sort.by("bookId");
+    private static final Set<String> LISTING_PARAMETERS = Set.of("author", "page", "size", "sort");
+    private static final Set<String> STREAM_PARAMETERS = Set.of("author", "sort");
+    private static final Set<String> SORT_PROPERTIES = Set.of("bookId", "title", "author", "isbn", "updatedAt");
+
+    private final ReactiveBookService reactiveBookService;
+    private final int maxPageSize;
+
+    public ReactiveBookHandler(ReactiveBookService reactiveBookService, int maxPageSize) {
+        this.reactiveBookService = reactiveBookService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                // only an explicit NDJSON accept streams; RequestPredicates.accept would also match */*
+                .GET(BOOK_API, request -> request.headers().accept().contains(MediaType.APPLICATION_NDJSON),
+                        this::stream)
+                .GET(BOOK_API, this::list)
+                .GET(BOOK_API + "/{bookId}", this::getById)
+                .build();
+    }
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        return Mono.defer(() -> {
+            rejectUnsupportedParameters(request, LISTING_PARAMETERS);
+            String author = request.queryParam("author").orElse(null);
+            Sort sort = toSort(request.queryParams().get("sort"));
+            PageRequest pageable = PageRequest.of(
+                    toPage(request.queryParam("page").orElse(null)),
+                    toPageSize(request.queryParam("size").orElse(null)),
+                    sort.isSorted() ? sort : DEFAULT_SORT);
+
+            return reactiveBookService.listBooks(author, pageable)
+                    .flatMap(books -> ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(ETagUtil.fromBooks(books.getContent(), author, books.getTotalElements(),
+                                    books.getPageable()))
+                            .bodyValue(books));
+        }).onErrorResume(this::toErrorResponse);
+    }
+
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return Mono.defer(() -> {
+            rejectUnsupportedParameters(request, STREAM_PARAMETERS);
+            String author = request.queryParam("author").orElse(null);
+            Sort sort = toSort(request.queryParams().get("sort"));
+
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(reactiveBookService.streamBooks(author, sort.isSorted() ? sort : DEFAULT_SORT),
+                            BookResponse.class);
+        }).onErrorResume(this::toErrorResponse);
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest request) {
+        return Mono.defer(() -> reactiveBookService.getBookById(toLong(request.pathVariable("bookId"), "bookId")))
+                .flatMap(book -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(ETagUtil.fromVersion(book.getVersion()));
+                    if (book.getUpdatedAt() != null) {
+                        response.lastModified(book.getUpdatedAt());
+                    }
+                    return response.bodyValue(book);
+                })
+                .onErrorResume(this::toErrorResponse);
+    }
+
+    private Mono<ServerResponse> toErrorResponse(Throwable error) {
+        if (error instanceof ObjectNotFoundException) {
+            return render(ExceptionHandlerController.NOT_FOUND.render(error.getMessage()));
+        }
+        if (error instanceof BadRequestException) {
+            return render(ExceptionHandlerController.BAD_REQUEST.render(error.getMessage()));
+        }
+
+        log.error("Internal error in server", error);
+        return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(StandardError.builder()
+                        .title("Internal error in server")
+                        .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                        .errorMessage("Internal error in server")
+                        .developerMessage(error.getClass().getName())
+                        .dateTime(DateUtil.currentDateTime())
+                        .build());
+    }
+
+    private static Mono<ServerResponse> render(ResponseEntity<byte[]> rendered) {
+        return ServerResponse.status(rendered.getStatusCode())
+                .headers(headers -> headers.addAll(rendered.getHeaders()))
+                .bodyValue(rendered.getBody());
+    }
+
+    // same format as the servlet API: sort=property[,asc|desc], repeatable
+    private static Sort toSort(List<String> sortParameters) {
+        if (sortParameters == null || sortParameters.isEmpty()) {
+            return Sort.unsorted();
+        }
+
+        return Sort.by(sortParameters.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(parameter -> {
+                    String[] parts = parameter.split(",");
+                    if (!SORT_PROPERTIES.contains(parts[0])) {
+                        throw new BadRequestException("Cannot sort books by " + parts[0]);
+                    }
+                    Sort.Direction direction = parts.length > 1
+                            ? Sort.Direction.fromOptionalString(parts[1]).orElse(Sort.Direction.ASC)
+                            : Sort.Direction.ASC;
+                    return new Sort.Order(direction, parts[0]);
+                })
+                .collect(Collectors.toList()));
+    }
+
+    private static void rejectUnsupportedParameters(ServerRequest request, Set<String> supported) {
+        request.queryParams().keySet().stream()
+                .filter(parameter -> !supported.contains(parameter))
+                .findFirst()
+                .ifPresent(parameter -> {
+                    throw new BadRequestException("Parameter " + parameter + " is not supported");
+                });
+    }
+
+    // page and size are bounded like the servlet's pageable resolver: unparseable or negative pages are the first
+    // page, unparseable or non-positive sizes the default, and sizes over the maximum the maximum
+    private static int toPage(String value) {
+        return Math.max(0, parseOrZero(value));
+    }
+
+    private int toPageSize(String value) {
+        int size = parseOrZero(value);
+        return size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, maxPageSize);
+    }
+
+    private static int parseOrZero(String value) {
+        if (StringUtils.isBlank(value)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long toLong(String value, String parameter) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Parameter " + parameter + " must be a number");
+        }
+    }
+
+}
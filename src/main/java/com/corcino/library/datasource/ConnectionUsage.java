@@ -0,0 +1,46 @@
+package com.corcino.library.datasource;
+
+import lombok.Getter;
+
+/**
+ * Connections checked out by the current request: how many, how long the pool took to hand them over, and how long
+ * they were held before being returned. Only tracked between {@link #start()} and {@link #clear()}.
+ */
+@Getter
+public final class ConnectionUsage {
+
+    private static final ThreadLocal<ConnectionUsage> CURRENT = new ThreadLocal<>();
+
+    private int acquisitions;
+    private long acquireNanos;
+    private long holdNanos;
+
+    private ConnectionUsage() {
+    }
+
+    public static ConnectionUsage start() {
+        ConnectionUsage usage = new ConnectionUsage();
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static void acquired(long nanos) {
+        ConnectionUsage usage = CURRENT.get();
+        if (usage != null) {
+            usage.acquisitions++;
+            usage.acquireNanos += nanos;
+        }
+    }
+
+    static void released(long nanos) {
+        ConnectionUsage usage = CURRENT.get();
+        if (usage != null) {
+            usage.holdNanos += nanos;
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.corcino.library.datasource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes, per request, the number of pool checkouts and the total time spent acquiring and holding connections,
+ * tagged like {@code http.server.requests} by method and uri template.
+ */
+public class ConnectionUsageFilter extends OncePerRequestFilter {
+
+    public static final String ACQUISITIONS = "library.request.connections";
+    public static final String ACQUIRE_TIME = "library.request.connection.acquire";
+    public static final String HOLD_TIME = "library.request.connection.hold";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionUsageFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConnectionUsage usage = ConnectionUsage.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConnectionUsage.clear();
+            record(request, usage);
+        }
+    }
+
+    private void record(HttpServletRequest request, ConnectionUsage usage) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri != null ? uri.toString() : "UNKNOWN");
+
+        DistributionSummary.builder(ACQUISITIONS)
+                .description("Connections checked out from the pool per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(usage.getAcquisitions());
+        Timer.builder(ACQUIRE_TIME)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(usage.getAcquireNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder(HOLD_TIME)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(usage.getHoldNanos(), TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.corcino.library.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reports every checkout to {@link ConnectionUsage}: the time spent waiting for the pool, and the time until the
+ * caller closes the connection again.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements Closeable {
+
+    public InstrumentedDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return track(super.getConnection(), start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return track(super.getConnection(username, password), start);
+    }
+
+    /**
+     * Closes the wrapped pool. The wrapper replaces the pool bean, so this is the close method Spring infers and calls
+     * at shutdown.
+     */
+    @Override
+    public void close() throws IOException {
+        DataSource target = obtainTargetDataSource();
+        if (target instanceof Closeable) {
+            ((Closeable) target).close();
+        }
+    }
+
+    private Connection track(Connection connection, long start) {
+        long acquiredAt = System.nanoTime();
+        ConnectionUsage.acquired(acquiredAt - start);
+
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTargetConnection":
+                            return connection;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                ConnectionUsage.released(System.nanoTime() - acquiredAt);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+}
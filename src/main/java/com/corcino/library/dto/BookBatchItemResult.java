@@ -0,0 +1,19 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookBatchItemResult {
+
+    private int index;
+    private BookBatchItemStatus status;
+    private Long bookId;
+    private String message;
+
+}
@@ -0,0 +1,9 @@
+package com.corcino.library.dto;
+
+public enum BookBatchItemStatus {
+
+    CREATED,
+    CONFLICT,
+    INVALID
+
+}
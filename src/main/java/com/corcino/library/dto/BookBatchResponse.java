@@ -0,0 +1,21 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookBatchResponse {
+
+    private int created;
+    private int conflicts;
+    private int invalid;
+    private List<BookBatchItemResult> items;
+
+}
@@ -0,0 +1,17 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookBulkDeleteResponse {
+
+    private int requested;
+    private int deleted;
+
+}
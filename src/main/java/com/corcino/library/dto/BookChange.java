@@ -0,0 +1,25 @@
+package com.corcino.library.dto;
+
+import com.corcino.library.event.BookChangedEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookChange {
+
+    private long sequence;
+    private BookChangedEvent.Type type;
+    private Long bookId;
+    private BookResponse book;
+    private List<BookResponse> books;
+
+}
@@ -0,0 +1,68 @@
+package com.corcino.library.dto;
+
+import com.corcino.library.error.exception.BadRequestException;
+import com.corcino.library.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key plus the last value seen on the previous slice.
+ */
+@Getter
+@AllArgsConstructor
+public class BookCursor {
+
+    private final SortKey sortKey;
+    private final String lastValue;
+
+    public static BookCursor after(SortKey sortKey, Book book) {
+        return new BookCursor(sortKey, sortKey.valueOf(book));
+    }
+
+    public String encode() {
+        String raw = sortKey.getProperty() + ":" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new BookCursor(SortKey.fromProperty(parts[0]), parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public enum SortKey {
+
+        BOOK_ID("bookId", book -> String.valueOf(book.getBookId())),
+        TITLE("title", Book::getTitle),
+        ISBN("isbn", Book::getIsbn);
+
+        private final String property;
+        private final Function<Book, String> extractor;
+
+        public String valueOf(Book book) {
+            return extractor.apply(book);
+        }
+
+        public static SortKey fromProperty(String property) {
+            return Arrays.stream(values())
+                    .filter(sortKey -> sortKey.property.equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Cursor pagination can not sort by " + property));
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImportError {
+
+    private long row;
+    private String message;
+
+}
@@ -0,0 +1,33 @@
+package com.corcino.library.dto;
+
+import com.corcino.library.importer.BookImportJob;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookImportStatus {
+
+    private String jobId;
+    private BookImportJob.State state;
+    private long processed;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private List<BookImportError> errors;
+    private boolean errorsTruncated;
+    private String message;
+    private Instant submittedAt;
+    private Instant finishedAt;
+
+}
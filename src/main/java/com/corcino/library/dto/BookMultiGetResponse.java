@@ -0,0 +1,19 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookMultiGetResponse {
+
+    private List<BookResponse> books;
+    private List<Long> missing;
+
+}
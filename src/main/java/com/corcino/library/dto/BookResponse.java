@@ -1,11 +1,12 @@
 package com.corcino.library.dto;
 
-import com.corcino.library.model.Book;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.domain.Page;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
@@ -18,15 +19,10 @@ public class BookResponse {
     private String author;
     private String isbn;
 
-    public BookResponse(Book book) {
-        this.bookId = book.getBookId();
-        this.title = book.getTitle();
-        this.author = book.getAuthor();
-        this.isbn = book.getIsbn();
-    }
+    @JsonIgnore
+    private long version;
 
-    public Page<BookResponse> convertList(Page<Book> books) {
-        return books.map(BookResponse::new);
-    }
+    @JsonIgnore
+    private Instant updatedAt;
 
 }
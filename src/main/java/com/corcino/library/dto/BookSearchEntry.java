@@ -0,0 +1,16 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchEntry {
+
+    private Long bookId;
+    private String title;
+    private String author;
+
+}
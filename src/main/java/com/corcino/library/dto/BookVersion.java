@@ -0,0 +1,17 @@
+package com.corcino.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookVersion {
+
+    private long version;
+    private Instant updatedAt;
+
+}
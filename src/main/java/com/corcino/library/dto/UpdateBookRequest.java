@@ -2,6 +2,7 @@ package com.corcino.library.dto;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 
 @Getter
 @Setter
@@ -11,4 +12,18 @@ public class UpdateBookRequest {
     private String author;
     private String isbn;
 
+    // MapStruct checks these before copying a field, so blank fields leave the book as it is
+
+    public boolean hasTitle() {
+        return StringUtils.isNotBlank(title);
+    }
+
+    public boolean hasAuthor() {
+        return StringUtils.isNotBlank(author);
+    }
+
+    public boolean hasIsbn() {
+        return StringUtils.isNotBlank(isbn);
+    }
+
 }
@@ -0,0 +1,96 @@
+package com.corcino.library.error;
+
+import com.corcino.library.util.DateUtil;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A {@link StandardError} response rendered ahead of time. Within one handler only the message and the timestamp
+ * change, so the JSON around them is kept as text, and the last response is reused as long as both stay the same:
+ * a burst of identical errors costs one rendering per second.
+ */
+public final class ErrorTemplate {
+
+    private static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private final HttpStatus status;
+    private final String title;
+    private final String developerMessage;
+
+    private volatile Rendered last;
+
+    private ErrorTemplate(HttpStatus status, String title, Class<? extends Throwable> type) {
+        this.status = status;
+        this.title = title != null ? quote(title) : null;
+        this.developerMessage = quote(type.getName());
+    }
+
+    public static ErrorTemplate of(HttpStatus status, String title, Class<? extends Throwable> type) {
+        return new ErrorTemplate(status, title, type);
+    }
+
+    /**
+     * A template whose title repeats the error message.
+     */
+    public static ErrorTemplate titledByMessage(HttpStatus status, Class<? extends Throwable> type) {
+        return new ErrorTemplate(status, null, type);
+    }
+
+    public ResponseEntity<byte[]> render(String errorMessage) {
+        String dateTime = DateUtil.currentDateTime();
+        Rendered rendered = last;
+
+        if (rendered == null || !rendered.dateTime.equals(dateTime) || !Objects.equals(rendered.errorMessage, errorMessage)) {
+            rendered = new Rendered(errorMessage, dateTime,
+                    new ResponseEntity<>(toJson(errorMessage, dateTime), JSON_HEADERS, status));
+            last = rendered;
+        }
+        return rendered.response;
+    }
+
+    private byte[] toJson(String errorMessage, String dateTime) {
+        String message = quote(errorMessage);
+        return new StringBuilder(160)
+                .append("{\"title\":").append(title != null ? title : message)
+                .append(",\"status\":").append(status.value())
+                .append(",\"errorMessage\":").append(message)
+                .append(",\"developerMessage\":").append(developerMessage)
+                .append(",\"dateTime\":").append(quote(dateTime))
+                .append('}')
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return '"' + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + '"';
+    }
+
+    private static final class Rendered {
+
+        private final String errorMessage;
+        private final String dateTime;
+        private final ResponseEntity<byte[]> response;
+
+        private Rendered(String errorMessage, String dateTime, ResponseEntity<byte[]> response) {
+            this.errorMessage = errorMessage;
+            this.dateTime = dateTime;
+            this.response = response;
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.corcino.library.error.exception;
+
+public class BadRequestException extends LibraryException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
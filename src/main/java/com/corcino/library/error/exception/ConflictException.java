@@ -0,0 +1,24 @@
+package com.corcino.library.error.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Uniqueness conflict detected by the service. Stays a {@link DataIntegrityViolationException} so it is handled like
+ * the ones raised by the database, but without the stack trace.
+ */
+public class ConflictException extends DataIntegrityViolationException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.corcino.library.error.exception;
+
+/**
+ * Base of the exceptions that become 4xx responses, or a 503 when load is shed. They are expected outcomes, turned
+ * into a response by {@link com.corcino.library.handler.ExceptionHandlerController} and never logged with a trace,
+ * so they skip filling one in.
+ */
+public abstract class LibraryException extends RuntimeException {
+
+    protected LibraryException(String message) {
+        super(message, null, false, false);
+    }
+
+}
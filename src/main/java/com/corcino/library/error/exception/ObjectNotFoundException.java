@@ -1,6 +1,6 @@
 package com.corcino.library.error.exception;
 
-public class ObjectNotFoundException extends RuntimeException {
+public class ObjectNotFoundException extends LibraryException {
 
     public ObjectNotFoundException(String message) {
         super(message);
@@ -0,0 +1,8 @@
+package com.corcino.library.error.exception;
+
+public class PreconditionFailedException extends LibraryException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.corcino.library.error.exception;
+
+public class PreconditionRequiredException extends LibraryException {
+
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,51 @@
+package com.corcino.library.event;
+
+import com.corcino.library.model.Book;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by the service layer after every book mutation so that derived views (search index, caches)
+ * can follow the writes. {@code book} may be null when the writer did not load the entity. A bulk import publishes
+ * a single {@link Type#IMPORTED} event per committed chunk, carrying its books instead of a book id.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookChangedEvent {
+
+    private final Type type;
+    private final Long bookId;
+    private final Book book;
+    private final List<Book> books;
+
+    public BookChangedEvent(Type type, Long bookId, Book book) {
+        this(type, bookId, book, null);
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Type.CREATED, book.getBookId(), book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(Type.UPDATED, book.getBookId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(Type.DELETED, bookId, null);
+    }
+
+    public static BookChangedEvent imported(List<Book> books) {
+        return new BookChangedEvent(Type.IMPORTED, null, null, List.copyOf(books));
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        IMPORTED
+    }
+
+}
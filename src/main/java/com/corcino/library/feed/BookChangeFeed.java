@@ -0,0 +1,195 @@
+package com.corcino.library.feed;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.dto.BookChange;
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.mapper.BookMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events stream of committed book mutations. Every change gets a sequence number that increases by one,
+ * the last {@code history} changes are kept so that a client can resume from the last sequence it saw, and each
+ * subscriber has its own bounded queue so a slow client is dropped instead of growing the heap. An imported chunk is
+ * a single {@code IMPORTED} change listing its books, so a large import does not flush every subscriber's queue.
+ */
+@Slf4j
+@Component
+public class BookChangeFeed {
+
+    static final String RESET_EVENT = "reset";
+
+    private final BookMapper bookMapper;
+    private final LibraryProperties.ChangeFeed properties;
+    private final Duration retryAfter;
+    private final ExecutorService dispatcher;
+
+    private final Deque<BookChange> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    public BookChangeFeed(BookMapper bookMapper, LibraryProperties libraryProperties) {
+        this.bookMapper = bookMapper;
+        this.properties = libraryProperties.getChangeFeed();
+        this.retryAfter = libraryProperties.getConcurrencyLimit().getRetryAfter();
+        this.dispatcher = Executors.newFixedThreadPool(properties.getDispatchThreads(), new DispatcherThreadFactory());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        synchronized (this) {
+            BookChange change = BookChange.builder()
+                    .sequence(++sequence)
+                    .type(event.getType())
+                    .bookId(event.getBookId())
+                    .book(event.getBook() != null ? bookMapper.toResponse(event.getBook()) : null)
+                    .books(event.getBooks() != null ? bookMapper.toResponses(event.getBooks()) : null)
+                    .build();
+
+            history.addLast(change);
+            if (history.size() > properties.getHistory()) {
+                history.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(change));
+        }
+    }
+
+    /**
+     * Opens a stream that first replays the retained changes after {@code since} and then follows new ones. When the
+     * requested sequence is no longer retained, a {@value #RESET_EVENT} event tells the client to reload its state.
+     * Streams are kept out of the request concurrency limit, so their number is capped here instead.
+     */
+    public SseEmitter subscribe(Long since) {
+        synchronized (this) {
+            if (subscribers.size() >= properties.getMaxSubscribers()) {
+                throw new ServiceUnavailableException("Too many change feed subscribers. Retry later", retryAfter);
+            }
+
+            Subscriber subscriber = new Subscriber(new SseEmitter(properties.getTimeout().toMillis()));
+            List<BookChange> replay = since == null ? List.of() : changesAfter(since);
+            if (replay == null || replay.size() > properties.getSubscriberBuffer()) {
+                subscriber.reset();
+            } else {
+                replay.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+            return subscriber.emitter;
+        }
+    }
+
+    public synchronized long currentSequence() {
+        return sequence;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private List<BookChange> changesAfter(long since) {
+        long oldestRetained = history.isEmpty() ? sequence + 1 : history.getFirst().getSequence();
+        if (since > sequence || since < oldestRetained - 1) {
+            return null;
+        }
+
+        List<BookChange> replay = new ArrayList<>();
+        history.stream()
+                .filter(change -> change.getSequence() > since)
+                .forEach(replay::add);
+        return replay;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(properties.getSubscriberBuffer() + 1);
+
+            emitter.onCompletion(() -> subscribers.remove(this));
+            emitter.onTimeout(() -> subscribers.remove(this));
+            emitter.onError(error -> subscribers.remove(this));
+        }
+
+        private void offer(BookChange change) {
+            enqueue(SseEmitter.event()
+                    .id(String.valueOf(change.getSequence()))
+                    .name(change.getType().name())
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        private void reset() {
+            enqueue(SseEmitter.event()
+                    .id(String.valueOf(sequence))
+                    .name(RESET_EVENT)
+                    .data(sequence));
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                log.warn("Change feed subscriber fell {} changes behind, disconnecting", queue.size());
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        subscribers.remove(this);
+                        queue.clear();
+                        draining.set(false);
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+
+    private static final class DispatcherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "book-change-feed-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -1,11 +1,17 @@
 package com.corcino.library.handler;
 
+import com.corcino.library.error.ErrorTemplate;
 import com.corcino.library.error.StandardError;
 import com.corcino.library.error.ValidationError;
+import com.corcino.library.error.exception.BadRequestException;
 import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.error.exception.PreconditionFailedException;
+import com.corcino.library.error.exception.PreconditionRequiredException;
+import com.corcino.library.error.exception.ServiceUnavailableException;
 import com.corcino.library.util.DateUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +23,6 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,32 +30,69 @@ import java.util.List;
 @Slf4j
 public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
 
+    // client errors are the high-volume responses, so their bodies are rendered from templates instead of serializing
+    // a StandardError each time; the developerMessage is the handled type, as before. The reactive read API answers
+    // with the same templates
+    public static final ErrorTemplate NOT_FOUND = ErrorTemplate.of(HttpStatus.NOT_FOUND,
+            "Object Not Found Exception. Check documentation", ObjectNotFoundException.class);
+    public static final ErrorTemplate BAD_REQUEST = ErrorTemplate.of(HttpStatus.BAD_REQUEST,
+            "Bad Request Exception. Check documentation", BadRequestException.class);
+    private static final ErrorTemplate CONFLICT = ErrorTemplate.titledByMessage(HttpStatus.CONFLICT,
+            DataIntegrityViolationException.class);
+    private static final ErrorTemplate PRECONDITION_FAILED = ErrorTemplate.of(HttpStatus.PRECONDITION_FAILED,
+            "Precondition Failed. Reload the book and retry", PreconditionFailedException.class);
+    private static final ErrorTemplate PRECONDITION_REQUIRED = ErrorTemplate.of(HttpStatus.PRECONDITION_REQUIRED,
+            "Precondition Required. Check documentation", PreconditionRequiredException.class);
+    private static final ErrorTemplate SERVICE_UNAVAILABLE = ErrorTemplate.of(HttpStatus.SERVICE_UNAVAILABLE,
+            "Service Unavailable. Retry later", ServiceUnavailableException.class);
+
     @ExceptionHandler(ObjectNotFoundException.class)
-    public ResponseEntity<StandardError> handleNotFound(ObjectNotFoundException notFoundException) {
-        return new ResponseEntity<>(
-                StandardError.builder()
-                        .title("Object Not Found Exception. Check documentation")
-                        .status(HttpStatus.NOT_FOUND.value())
-                        .errorMessage(notFoundException.getMessage())
-                        .developerMessage(notFoundException.getClass().getName())
-                        .dateTime(getDateTime())
-                        .build(), HttpStatus.NOT_FOUND
-        );
+    public ResponseEntity<byte[]> handleNotFound(ObjectNotFoundException notFoundException) {
+        return NOT_FOUND.render(notFoundException.getMessage());
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<byte[]> handleBadRequest(BadRequestException badRequestException) {
+        return BAD_REQUEST.render(badRequestException.getMessage());
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
-    public ResponseEntity<StandardError> handleConflict(DataIntegrityViolationException conflict) {
+    public ResponseEntity<byte[]> handleConflict(DataIntegrityViolationException conflict) {
+        return CONFLICT.render(conflict.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<StandardError> handleConcurrentUpdate(OptimisticLockingFailureException conflict) {
         return new ResponseEntity<>(
                 StandardError.builder()
-                        .title(conflict.getMessage())
+                        .title("Book was modified by another request")
                         .status(HttpStatus.CONFLICT.value())
-                        .errorMessage(conflict.getMessage())
+                        .errorMessage("Book was modified by another request")
                         .developerMessage(conflict.getClass().getName())
                         .dateTime(getDateTime())
                         .build(), HttpStatus.CONFLICT
         );
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<byte[]> handlePreconditionFailed(PreconditionFailedException preconditionFailed) {
+        return PRECONDITION_FAILED.render(preconditionFailed.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<byte[]> handlePreconditionRequired(PreconditionRequiredException preconditionRequired) {
+        return PRECONDITION_REQUIRED.render(preconditionRequired.getMessage());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailable(ServiceUnavailableException serviceUnavailable) {
+        ResponseEntity<byte[]> rendered = SERVICE_UNAVAILABLE.render(serviceUnavailable.getMessage());
+        return ResponseEntity.status(rendered.getStatusCode())
+                .headers(rendered.getHeaders())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, serviceUnavailable.getRetryAfter().toSeconds())))
+                .body(rendered.getBody());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<StandardError> handleInternalException(Exception exception) {
         return new ResponseEntity<>(
@@ -132,7 +174,7 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
     }
 
     private String getDateTime() {
-        return DateUtil.formatLocalDateTime(LocalDateTime.now());
+        return DateUtil.currentDateTime();
     }
 
 }
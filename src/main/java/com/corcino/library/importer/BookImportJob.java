@@ -0,0 +1,122 @@
+package com.corcino.library.importer;
+
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookImportError;
+import com.corcino.library.dto.BookImportStatus;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of one import. Written by the worker thread and read by status polls, so every accessor is synchronized;
+ * the error report keeps at most {@code maxErrors} rows.
+ */
+public class BookImportJob {
+
+    @Getter
+    private final String jobId = UUID.randomUUID().toString();
+
+    @Getter
+    private final BookFileFormat format;
+
+    private final int maxErrors;
+    private final List<BookImportError> errors = new ArrayList<>();
+    private final Instant submittedAt = Instant.now();
+
+    private State state = State.QUEUED;
+    private long processed;
+    private long created;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private boolean errorsTruncated;
+    private String message;
+    private Instant finishedAt;
+
+    public BookImportJob(BookFileFormat format, int maxErrors) {
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    synchronized void start() {
+        state = State.RUNNING;
+    }
+
+    synchronized void created(int count) {
+        processed += count;
+        created += count;
+    }
+
+    synchronized void duplicate(long row, String reason) {
+        processed++;
+        duplicates++;
+        addError(row, reason);
+    }
+
+    synchronized void invalid(long row, String reason) {
+        processed++;
+        invalid++;
+        addError(row, reason);
+    }
+
+    synchronized void failed(long row, String reason) {
+        processed++;
+        failed++;
+        addError(row, reason);
+    }
+
+    synchronized void complete() {
+        state = State.COMPLETED;
+        finishedAt = Instant.now();
+    }
+
+    synchronized void fail(String reason) {
+        state = State.FAILED;
+        message = reason;
+        finishedAt = Instant.now();
+    }
+
+    public synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized BookImportStatus toStatus() {
+        return BookImportStatus.builder()
+                .jobId(jobId)
+                .state(state)
+                .processed(processed)
+                .created(created)
+                .duplicates(duplicates)
+                .invalid(invalid)
+                .failed(failed)
+                .errors(new ArrayList<>(errors))
+                .errorsTruncated(errorsTruncated)
+                .message(message)
+                .submittedAt(submittedAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+
+    private void addError(long row, String reason) {
+        if (errors.size() < maxErrors) {
+            errors.add(new BookImportError(row, reason));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+}
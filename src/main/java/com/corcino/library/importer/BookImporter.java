@@ -0,0 +1,307 @@
+package com.corcino.library.importer;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookRequest;
+import com.corcino.library.error.exception.BadRequestException;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.model.Book;
+import com.corcino.library.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports CSV or NDJSON files in the background. The upload is copied to a temporary file and read one row at a
+ * time; each chunk is validated in parallel, checked against the isbns and titles loaded once when the job starts,
+ * and inserted in its own transaction, so a bad chunk only rolls back itself.
+ */
+@Slf4j
+@Component
+public class BookImporter {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibraryProperties libraryProperties;
+    private final ExecutorService workers;
+
+    private final Map<String, BookImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BookImporter(BookRepository bookRepository, BookMapper bookMapper, Validator validator,
+                        ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher, LibraryProperties libraryProperties) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.libraryProperties = libraryProperties;
+        this.workers = Executors.newFixedThreadPool(libraryProperties.getImporter().getWorkerThreads(),
+                new CustomizableThreadFactory("book-import-"));
+    }
+
+    public BookImportJob submit(MultipartFile file, BookFileFormat format) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is mandatory");
+        }
+
+        Path upload = Files.createTempFile("book-import-", "." + format.getExtension());
+        file.transferTo(upload);
+
+        evictExpiredJobs();
+        BookImportJob job = new BookImportJob(format, libraryProperties.getImporter().getMaxErrors());
+        jobs.put(job.getJobId(), job);
+        workers.execute(() -> run(job, upload));
+
+        log.info("Import {} de {} recebido ({} bytes)", job.getJobId(), file.getOriginalFilename(), file.getSize());
+        return job;
+    }
+
+    public BookImportJob getJob(String jobId) {
+        BookImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ObjectNotFoundException("Import job not found");
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(BookImportJob job, Path upload) {
+        job.start();
+        int chunkSize = libraryProperties.getImporter().getChunkSize();
+
+        try (Reader reader = Files.newBufferedReader(upload, StandardCharsets.UTF_8);
+             Stream<Row> rows = readRows(job.getFormat(), reader)) {
+            Set<String> usedIsbns = new HashSet<>(bookRepository.findAllIsbns());
+            Set<String> usedTitles = new HashSet<>(bookRepository.findAllTitles());
+
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            Iterator<Row> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk, usedIsbns, usedTitles);
+                    chunk.clear();
+                }
+            }
+            importChunk(job, chunk, usedIsbns, usedTitles);
+
+            job.complete();
+            log.info("Import {} concluido: {}", job.getJobId(), job.toStatus());
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            log.warn("Import {} interrompido", job.getJobId(), e);
+            job.fail("Could not read import file: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } catch (RuntimeException e) {
+            log.error("Import {} falhou", job.getJobId(), e);
+            job.fail("Import failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            deleteUpload(upload);
+        }
+    }
+
+    private Stream<Row> readRows(BookFileFormat format, Reader reader) throws IOException {
+        AtomicLong number = new AtomicLong();
+
+        if (format == BookFileFormat.CSV) {
+            CSVParser parser = CSV_FORMAT.parse(reader);
+            return parser.stream()
+                    .map(record -> Row.parsed(number.incrementAndGet(), toRequest(record)))
+                    .onClose(() -> closeQuietly(parser));
+        }
+
+        return new BufferedReader(reader).lines()
+                .map(line -> parseJson(number.incrementAndGet(), line))
+                .filter(Objects::nonNull);
+    }
+
+    private BookRequest toRequest(CSVRecord record) {
+        return BookRequest.builder()
+                .title(column(record, "title"))
+                .author(column(record, "author"))
+                .isbn(column(record, "isbn"))
+                .build();
+    }
+
+    private String column(CSVRecord record, String name) {
+        return record.isSet(name) ? record.get(name) : null;
+    }
+
+    private Row parseJson(long number, String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            BookRequest request = objectMapper.readValue(line, BookRequest.class);
+            return request != null ? Row.parsed(number, request) : Row.rejected(number, "Malformed JSON");
+        } catch (JsonProcessingException e) {
+            return Row.rejected(number, "Malformed JSON");
+        }
+    }
+
+    private void importChunk(BookImportJob job, List<Row> chunk, Set<String> usedIsbns, Set<String> usedTitles) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<Row> validated = chunk.parallelStream()
+                .map(this::validate)
+                .collect(Collectors.toList());
+
+        // the chunk's own keys only join the used ones once its transaction commits, so the rows of a rolled back
+        // chunk are not reported as duplicates when they show up again later in the file
+        Set<String> chunkIsbns = new HashSet<>();
+        Set<String> chunkTitles = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(validated.size());
+        for (Row row : validated) {
+            if (row.error != null) {
+                job.invalid(row.number, row.error);
+            } else if (usedIsbns.contains(row.book.getIsbn()) || chunkIsbns.contains(row.book.getIsbn())) {
+                job.duplicate(row.number, "Isbn already used");
+            } else if (usedTitles.contains(row.book.getTitle()) || chunkTitles.contains(row.book.getTitle())) {
+                job.duplicate(row.number, "Title already used");
+            } else {
+                chunkIsbns.add(row.book.getIsbn());
+                chunkTitles.add(row.book.getTitle());
+                accepted.add(row);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(accepted));
+            usedIsbns.addAll(chunkIsbns);
+            usedTitles.addAll(chunkTitles);
+            job.created(accepted.size());
+        } catch (DataAccessException e) {
+            String reason = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import {}: {}", job.getJobId(), reason);
+            accepted.forEach(row -> job.failed(row.number, reason));
+        }
+    }
+
+    private Row validate(Row row) {
+        if (row.error != null) {
+            return row;
+        }
+
+        Set<ConstraintViolation<BookRequest>> violations = validator.validate(row.request);
+        if (!violations.isEmpty()) {
+            return Row.rejected(row.number, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return row.withBook(bookMapper.toBook(row.request));
+    }
+
+    private void save(List<Row> rows) {
+        int batchSize = libraryProperties.getBulk().getBatchSize();
+        List<Book> books = rows.stream().map(row -> row.book).collect(Collectors.toList());
+
+        for (int from = 0; from < books.size(); from += batchSize) {
+            bookRepository.saveAll(books.subList(from, Math.min(from + batchSize, books.size())));
+            bookRepository.flush();
+        }
+        eventPublisher.publishEvent(BookChangedEvent.imported(books));
+    }
+
+    private void evictExpiredJobs() {
+        Instant expiry = Instant.now().minus(libraryProperties.getImporter().getRetention());
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiry));
+    }
+
+    private void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Nao foi possivel remover {}", upload, e);
+        }
+    }
+
+    private void closeQuietly(CSVParser parser) {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            log.warn("Erro ao fechar o arquivo de import", e);
+        }
+    }
+
+    private static final class Row {
+
+        private final long number;
+        private final BookRequest request;
+        private final Book book;
+        private final String error;
+
+        private Row(long number, BookRequest request, Book book, String error) {
+            this.number = number;
+            this.request = request;
+            this.book = book;
+            this.error = error;
+        }
+
+        static Row parsed(long number, BookRequest request) {
+            return new Row(number, request, null, null);
+        }
+
+        static Row rejected(long number, String error) {
+            return new Row(number, null, null, error);
+        }
+
+        Row withBook(Book book) {
+            return new Row(number, request, book, null);
+        }
+    }
+
+}
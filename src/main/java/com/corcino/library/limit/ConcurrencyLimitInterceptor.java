@@ -0,0 +1,87 @@
+package com.corcino.library.limit;
+
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Sheds API requests beyond the current concurrency limit with a 503 before the handler runs, instead of letting them
+ * queue for a database connection. Reads and writes have their own limiter, so a burst of slow writes does not starve
+ * the cheap, mostly cached reads.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(),
+            HttpMethod.OPTIONS.name());
+
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiter readLimiter, ConcurrencyLimiter writeLimiter,
+                                       Duration retryAfter) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the permit of an async request was already settled when its first dispatch returned
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+
+        ConcurrencyLimiter limiter = READ_METHODS.contains(request.getMethod()) ? readLimiter : writeLimiter;
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            throw new ServiceUnavailableException(
+                    "Too many concurrent " + limiter.getName() + " requests. Retry later", retryAfter);
+        }
+
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // exports and change streams can stay open for minutes and would hold read slots the limit never gets a sample
+        // back for; they are bounded on their own (library.export.max-concurrent, library.change-feed.max-subscribers)
+        ConcurrencyLimiter.Permit permit = removePermit(request);
+        if (permit != null) {
+            permit.onIgnore();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ConcurrencyLimiter.Permit permit = removePermit(request);
+        if (permit == null) {
+            return;
+        }
+
+        // handled errors (404, 409, ...) arrive here without an exception and are as good a sample as a success
+        if (ex != null || response.getStatus() >= 500) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private ConcurrencyLimiter.Permit removePermit(HttpServletRequest request) {
+        ConcurrencyLimiter.Permit permit = (ConcurrencyLimiter.Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        return permit;
+    }
+
+}
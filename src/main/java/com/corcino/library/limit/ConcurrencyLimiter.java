@@ -0,0 +1,81 @@
+package com.corcino.library.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests while fewer than {@link GradientLimit#getLimit()} are in flight. Nothing ever waits for a slot:
+ * a request over the limit is refused at once, so the caller can shed it before it ties up a thread.
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+    private final GradientLimit limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimiter(String name, GradientLimit limit) {
+        this.name = name;
+        this.limit = limit;
+    }
+
+    /**
+     * Reserves a slot, or returns {@code null} when the limit is reached. The permit has to be released exactly once.
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit.getLimit()) {
+                rejected.increment();
+                return null;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+
+        return new Permit(current + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final int inflightAtStart;
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /** The request completed normally; its latency feeds the limit. */
+        public void onSuccess() {
+            inflight.decrementAndGet();
+            limit.onSample(System.nanoTime() - startNanos, inflightAtStart);
+        }
+
+        /** The request failed in a way that points at overload; the limit backs off. */
+        public void onDropped() {
+            inflight.decrementAndGet();
+            limit.onDropped();
+        }
+
+        /** The request left early or ran on another thread; it says nothing about latency. */
+        public void onIgnore() {
+            inflight.decrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.corcino.library.limit;
+
+/**
+ * A concurrency limit driven by latency, after Netflix's Gradient2. A short moving average of request latency is
+ * compared with a long one that stands for the latency of the uncongested system: while they agree the limit keeps
+ * growing by a small queue allowance, and once requests slow down their ratio cuts it, by at most half per sample.
+ * Requests that failed on a resource (a pool timeout, say) back the limit off multiplicatively instead.
+ */
+public class GradientLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+
+    private final ExponentialAverage shortRtt = new ExponentialAverage(10);
+    private final ExponentialAverage longRtt = new ExponentialAverage(600);
+
+    private volatile double estimatedLimit;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= min <= initial <= max, got min=" + minLimit
+                    + ", initial=" + initialLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * @param rttNanos latency of a request that completed normally
+     * @param inflight requests in flight, this one included, when it started
+     */
+    public synchronized void onSample(long rttNanos, int inflight) {
+        double shortTerm = shortRtt.add(rttNanos);
+        double longTerm = longRtt.add(shortTerm);
+
+        // after a sustained slowdown the long average lags far behind once latency recovers, and would hold the
+        // limit at its maximum for minutes; pull it towards the present instead
+        if (longTerm / shortTerm > 2) {
+            longTerm = longRtt.set(longTerm * 0.95);
+        }
+
+        // with less than half of the limit in use the latency says nothing about the limit itself
+        if (inflight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longTerm / shortTerm));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        update(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    public synchronized void onDropped() {
+        update(estimatedLimit * BACKOFF_RATIO);
+    }
+
+    private void update(double limit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    private static final class ExponentialAverage {
+
+        private static final int WARMUP = 10;
+
+        private final double factor;
+        private double value;
+        private int count;
+
+        private ExponentialAverage(int window) {
+            this.factor = 2.0 / (window + 1);
+        }
+
+        // plain mean over the first samples, so the first request does not define the average
+        private double add(double sample) {
+            if (count < WARMUP) {
+                count++;
+                value += (sample - value) / count;
+            } else {
+                value = value * (1 - factor) + sample * factor;
+            }
+            return value;
+        }
+
+        private double set(double value) {
+            this.value = value;
+            return value;
+        }
+    }
+
+}
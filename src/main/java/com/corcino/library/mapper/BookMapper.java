@@ -0,0 +1,51 @@
+package com.corcino.library.mapper;
+
+import com.corcino.library.dto.BookRequest;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.dto.UpdateBookRequest;
+import com.corcino.library.model.Book;
+import com.corcino.library.model.BookRecord;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.springframework.data.domain.Page;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Book/DTO conversions generated at compile time by MapStruct, so mapping is plain getter/setter calls with no
+ * reflection per call.
+ */
+@Mapper(componentModel = "spring")
+public interface BookMapper {
+
+    @Mapping(target = "bookId", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Book toBook(BookRequest bookRequest);
+
+    /** Copies the non-blank fields of the request onto the book. */
+    @Mapping(target = "bookId", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void updateBook(UpdateBookRequest updateBookRequest, @MappingTarget Book book);
+
+    BookResponse toResponse(Book book);
+
+    List<BookResponse> toResponses(List<Book> books);
+
+    BookResponse toResponse(BookRecord bookRecord);
+
+    default Page<BookResponse> toResponsePage(Page<Book> books) {
+        return books.map(this::toResponse);
+    }
+
+    // Hibernate writes Instants into datetime columns in the JVM zone; read them back the same way
+    default Instant toInstant(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+}
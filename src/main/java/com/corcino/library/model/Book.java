@@ -2,24 +2,48 @@ package com.corcino.library.model;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
 @NoArgsConstructor
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = Book.UNIQUE_TITLE, columnNames = "title"),
+        @UniqueConstraint(name = Book.UNIQUE_ISBN, columnNames = "isbn")
+}, indexes = {
+        @Index(name = "idx_book_author", columnList = "author"),
+        @Index(name = "idx_book_updated_at", columnList = "updated_at")
+})
 public class Book {
 
+    public static final String UNIQUE_TITLE = "uk_book_title";
+    public static final String UNIQUE_ISBN = "uk_book_isbn";
+    public static final String CACHE_REGION = "book";
+    public static final String QUERY_CACHE_REGION = "book-query";
+
+    // IDENTITY disables Hibernate insert batching; a pooled sequence lets bulk inserts go out in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long bookId;
 
-    @Column(unique = true)
     private String title;
 
     private String author;
 
-    @Column(unique = true)
     private String isbn;
 
+    @Version
+    private long version;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
 }
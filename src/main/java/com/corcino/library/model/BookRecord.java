@@ -0,0 +1,33 @@
+package com.corcino.library.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * The {@code book} row as read by R2DBC for the reactive read API. It is never written: {@link Book} stays the one
+ * mapping that inserts and updates, so versioning and cache invalidation keep a single owner.
+ */
+@Data
+@NoArgsConstructor
+@Table("book")
+public class BookRecord {
+
+    @Id
+    private Long bookId;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    private long version;
+
+    // datetime columns come back from the drivers as LocalDateTime, in the zone Hibernate wrote them in
+    private LocalDateTime updatedAt;
+
+}
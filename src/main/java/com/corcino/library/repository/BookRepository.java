@@ -1,16 +1,78 @@
 package com.corcino.library.repository;
 
+import com.corcino.library.dto.BookVersion;
 import com.corcino.library.model.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom, BookStreamRepository {
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Book.QUERY_CACHE_REGION)})
     boolean existsByIsbn(String isbn);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Book.QUERY_CACHE_REGION)})
     boolean existsByTitle(String title);
 
+    @QueryHints(value = {@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Book.QUERY_CACHE_REGION)},
+            forCounting = true)
     Page<Book> findByAuthorContaining(String author, Pageable pageable);
+
+    Slice<Book> findAllBy(Pageable pageable);
+    Slice<Book> findByBookIdGreaterThan(Long bookId, Pageable pageable);
+    Slice<Book> findByTitleGreaterThan(String title, Pageable pageable);
+    Slice<Book> findByIsbnGreaterThan(String isbn, Pageable pageable);
+
+    @Query("select new com.corcino.library.dto.BookVersion(b.version, b.updatedAt) from Book b where b.bookId = :bookId")
+    Optional<BookVersion> findVersionById(@Param("bookId") Long bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.title = coalesce(:title, b.title), b.author = coalesce(:author, b.author), " +
+            "b.isbn = coalesce(:isbn, b.isbn), b.version = b.version + 1, b.updatedAt = :updatedAt " +
+            "where b.bookId = :bookId and b.version = :version")
+    int patch(@Param("bookId") Long bookId, @Param("version") long version,
+              @Param("title") String title, @Param("author") String author, @Param("isbn") String isbn,
+              @Param("updatedAt") Instant updatedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Book b where b.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+
+    // a bulk delete bypasses the second-level cache, so Hibernate evicts the whole Book region and every query cache
+    // region over the table after it; worth it for one statement instead of a select and a delete per id
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Book b where b.bookId in :bookIds")
+    int deleteByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @Query("select b.title from Book b where b.title in :titles")
+    List<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    @Query("select b.isbn from Book b")
+    List<String> findAllIsbns();
+
+    @Query("select b.title from Book b")
+    List<String> findAllTitles();
 }
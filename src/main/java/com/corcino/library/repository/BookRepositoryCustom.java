@@ -0,0 +1,19 @@
+package com.corcino.library.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Queries whose selected columns are chosen per request, for sparse fieldsets.
+ */
+public interface BookRepositoryCustom {
+
+    Page<Map<String, Object>> findFieldsByAuthorContaining(Collection<String> fields, String author, Pageable pageable);
+
+    Optional<Map<String, Object>> findFieldsById(Collection<String> fields, Long bookId);
+
+}
@@ -0,0 +1,94 @@
+package com.corcino.library.repository;
+
+import com.corcino.library.model.Book;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String AUTHOR = "author";
+    private static final String BOOK_ID = "bookId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findFieldsByAuthorContaining(Collection<String> fields, String author, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+
+        query.multiselect(selections(book, fields));
+        authorContaining(criteriaBuilder, book, author).ifPresent(query::where);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, criteriaBuilder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> content = toMaps(typedQuery.getResultList(), fields);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countByAuthorContaining(author));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Collection<String> fields, Long bookId) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+
+        query.multiselect(selections(book, fields));
+        query.where(criteriaBuilder.equal(book.get(BOOK_ID), bookId));
+
+        return toMaps(entityManager.createQuery(query).getResultList(), fields).stream().findFirst();
+    }
+
+    private long countByAuthorContaining(String author) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+
+        query.select(criteriaBuilder.count(book));
+        authorContaining(criteriaBuilder, book, author).ifPresent(query::where);
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Selection<?>> selections(Root<Book> book, Collection<String> fields) {
+        return fields.stream()
+                .<Selection<?>>map(field -> book.get(field).alias(field))
+                .collect(Collectors.toList());
+    }
+
+    private Optional<Predicate> authorContaining(CriteriaBuilder criteriaBuilder, Root<Book> book, String author) {
+        if (StringUtils.isBlank(author)) {
+            return Optional.empty();
+        }
+        String pattern = "%" + EscapeCharacter.DEFAULT.escape(author) + "%";
+        return Optional.of(criteriaBuilder.like(book.get(AUTHOR), pattern, EscapeCharacter.DEFAULT.getEscapeCharacter()));
+    }
+
+    private List<Map<String, Object>> toMaps(List<Tuple> tuples, Collection<String> fields) {
+        return tuples.stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.forEach(field -> row.put(field, tuple.get(field)));
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+
+}
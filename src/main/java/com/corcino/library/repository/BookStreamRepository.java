@@ -0,0 +1,19 @@
+package com.corcino.library.repository;
+
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.dto.BookSearchEntry;
+
+import java.util.stream.Stream;
+
+/**
+ * Reads of the whole table as streams of DTOs, which are not attached to the persistence context, so memory stays
+ * flat whatever the table size. Callers have to close the stream inside a transaction.
+ */
+public interface BookStreamRepository {
+
+    Stream<BookResponse> streamAllForExport();
+
+    /** Only the indexed columns, for rebuilding the search index. */
+    Stream<BookSearchEntry> streamAllForSearch();
+
+}
@@ -0,0 +1,48 @@
+package com.corcino.library.repository;
+
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.dto.BookSearchEntry;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class BookStreamRepositoryImpl implements BookStreamRepository {
+
+    // Connector/J only streams a result set row by row for this fetch size; other drivers reject negative sizes
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<BookResponse> streamAllForExport() {
+        return entityManager.createQuery("select new com.corcino.library.dto.BookResponse(b.bookId, b.title, b.author, "
+                        + "b.isbn, b.version, b.updatedAt) from Book b order by b.bookId", BookResponse.class)
+                .setHint(HINT_FETCH_SIZE, fetchSize())
+                .setHint(HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<BookSearchEntry> streamAllForSearch() {
+        return entityManager.createQuery("select new com.corcino.library.dto.BookSearchEntry(b.bookId, b.title, "
+                        + "b.author) from Book b", BookSearchEntry.class)
+                .setHint(HINT_FETCH_SIZE, fetchSize())
+                .setHint(HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    private int fetchSize() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof MySQLDialect ? MYSQL_STREAMING_FETCH_SIZE : DEFAULT_FETCH_SIZE;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.corcino.library.repository.reactive;
+
+import com.corcino.library.model.BookRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// findAll(Sort) comes with R2dbcRepository; reactive repositories have no findAll(Pageable)
+public interface ReactiveBookRepository extends R2dbcRepository<BookRecord, Long> {
+
+    Flux<BookRecord> findAllBy(Pageable pageable);
+
+    Flux<BookRecord> findByAuthorContaining(String author, Pageable pageable);
+
+    Flux<BookRecord> findByAuthorContaining(String author, Sort sort);
+
+    Mono<Long> countByAuthorContaining(String author);
+
+}
@@ -0,0 +1,237 @@
+package com.corcino.library.search;
+
+import com.corcino.library.dto.BookSearchEntry;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.model.Book;
+import com.corcino.library.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over book authors and titles. Terms are kept in a sorted map so that both exact
+ * token lookups and prefix lookups ({@code "josh*"}) are range reads instead of table scans.
+ * <p>
+ * The index is local to this instance: it is built from the table at startup and then only follows the writes
+ * published by this instance, so books written through another instance are missing until the next rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+
+    private static final char AUTHOR_PREFIX = 'a';
+    private static final char TITLE_PREFIX = 't';
+    private static final String PREFIX_WILDCARD = "*";
+
+    private final BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Terms terms = new Terms();
+    // changes applied while a rebuild reads the table, replayed onto the rebuilt terms; null when not rebuilding
+    private List<Consumer<Terms>> pendingChanges;
+
+    /**
+     * Builds a new index from the table while the current one keeps serving searches and following writes, then
+     * swaps it in and replays the writes that arrived meanwhile, since the rows read may predate them.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Terms rebuilt = new Terms();
+            try (Stream<BookSearchEntry> books = bookRepository.streamAllForSearch()) {
+                books.forEach(book -> rebuilt.add(book.getBookId(), book.getTitle(), book.getAuthor()));
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                terms = rebuilt;
+                log.info("Search index built with {} books and {} terms, {} changes replayed",
+                        rebuilt.termsByBook.size(), rebuilt.postings.size(), pendingChanges.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            remove(event.getBookId());
+        } else if (event.getType() == BookChangedEvent.Type.IMPORTED) {
+            index(event.getBooks());
+        } else if (event.getBook() != null) {
+            index(event.getBook());
+        } else {
+            Optional<Book> book = bookRepository.findById(event.getBookId());
+            if (book.isPresent()) {
+                index(book.get());
+            } else {
+                remove(event.getBookId());
+            }
+        }
+    }
+
+    public void index(Book book) {
+        Long bookId = book.getBookId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        apply(target -> {
+            target.remove(bookId);
+            target.add(bookId, title, author);
+        });
+    }
+
+    /** Indexes a batch under a single acquisition of the write lock. */
+    public void index(Collection<Book> books) {
+        List<BookSearchEntry> entries = new ArrayList<>(books.size());
+        books.forEach(book -> entries.add(new BookSearchEntry(book.getBookId(), book.getTitle(), book.getAuthor())));
+        apply(target -> entries.forEach(entry -> {
+            target.remove(entry.getBookId());
+            target.add(entry.getBookId(), entry.getTitle(), entry.getAuthor());
+        }));
+    }
+
+    public void remove(Long bookId) {
+        apply(target -> target.remove(bookId));
+    }
+
+    private void apply(Consumer<Terms> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(terms);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the books matching every token of the query, in ascending id order. A token ending
+     * with {@code *} matches any term starting with it.
+     */
+    public SortedSet<Long> search(String query, SearchField field) {
+        List<String> tokens = tokenize(StringUtils.defaultString(query), true);
+        if (tokens.isEmpty()) {
+            return Collections.emptySortedSet();
+        }
+
+        lock.readLock().lock();
+        try {
+            SortedSet<Long> result = null;
+            for (String token : tokens) {
+                Set<Long> matches = match(token, field);
+                if (result == null) {
+                    result = new TreeSet<>(matches);
+                } else {
+                    result.retainAll(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> match(String token, SearchField field) {
+        Set<Long> matches = new HashSet<>();
+        if (field != SearchField.TITLE) {
+            collect(AUTHOR_PREFIX, token, matches);
+        }
+        if (field != SearchField.AUTHOR) {
+            collect(TITLE_PREFIX, token, matches);
+        }
+        return matches;
+    }
+
+    private void collect(char fieldPrefix, String token, Set<Long> matches) {
+        if (token.endsWith(PREFIX_WILDCARD)) {
+            String prefix = fieldPrefix + ":" + token.substring(0, token.length() - 1);
+            terms.postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(matches::addAll);
+        } else {
+            matches.addAll(terms.postings.getOrDefault(fieldPrefix + ":" + token, Collections.emptySet()));
+        }
+    }
+
+    static List<String> tokenize(String text, boolean keepWildcard) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split(keepWildcard ? "[^\\p{L}\\p{N}*]+" : "[^\\p{L}\\p{N}]+")) {
+            String term = keepWildcard ? token.replaceAll("\\*+(?=.)", "") : token;
+            if (StringUtils.isNotEmpty(term) && !PREFIX_WILDCARD.equals(term)) {
+                tokens.add(term);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Terms {
+
+        private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+        private final Map<Long, Set<String>> termsByBook = new HashMap<>();
+
+        private void add(Long bookId, String title, String author) {
+            Set<String> bookTerms = new HashSet<>();
+            tokenize(StringUtils.defaultString(author), false)
+                    .forEach(token -> bookTerms.add(AUTHOR_PREFIX + ":" + token));
+            tokenize(StringUtils.defaultString(title), false)
+                    .forEach(token -> bookTerms.add(TITLE_PREFIX + ":" + token));
+
+            bookTerms.forEach(term -> postings.computeIfAbsent(term, key -> new HashSet<>()).add(bookId));
+            termsByBook.put(bookId, bookTerms);
+        }
+
+        private void remove(Long bookId) {
+            Set<String> bookTerms = termsByBook.remove(bookId);
+            if (bookTerms == null) {
+                return;
+            }
+            bookTerms.forEach(term -> {
+                Set<Long> ids = postings.get(term);
+                ids.remove(bookId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.corcino.library.search;
+
+import com.corcino.library.error.exception.BadRequestException;
+
+import java.util.Arrays;
+
+public enum SearchField {
+
+    AUTHOR,
+    TITLE,
+    ALL;
+
+    public static SearchField fromName(String name) {
+        return Arrays.stream(values())
+                .filter(field -> field.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Can not search by field " + name));
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.corcino.library.service;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.config.MetricsConfig;
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import com.corcino.library.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalogue row by row from a database cursor, so memory use does not depend on the table size.
+ */
+@Service
+@Slf4j
+public class BookExportService {
+
+    private static final String CSV_HEADER = "bookId,title,author,isbn";
+    private static final char[] CSV_SPECIAL_CHARACTERS = {',', '"', '\n', '\r'};
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final Duration retryAfter;
+
+    public BookExportService(BookRepository bookRepository, ObjectMapper objectMapper,
+                             LibraryProperties libraryProperties) {
+        this.bookRepository = bookRepository;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(libraryProperties.getExport().getMaxConcurrent());
+        this.retryAfter = libraryProperties.getConcurrencyLimit().getRetryAfter();
+    }
+
+    /**
+     * Takes one of the export slots, or fails with a 503 when they are all streaming. Exports are kept out of the
+     * request concurrency limit, so this is their bound; the returned callback gives the slot back and has to run
+     * once the export ends.
+     */
+    public Runnable reserveSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many exports running. Retry later", retryAfter);
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        };
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public long exportBooks(BookFileFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        ObjectWriter jsonWriter = objectMapper.writerFor(BookResponse.class);
+        long rows = 0;
+
+        if (format == BookFileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<BookResponse> books = bookRepository.streamAllForExport()) {
+            Iterator<BookResponse> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                BookResponse book = iterator.next();
+                writer.write(format == BookFileFormat.CSV ? toCsv(book) : jsonWriter.writeValueAsString(book));
+                writer.write('\n');
+                rows++;
+            }
+        }
+
+        writer.flush();
+        log.info("Exportados {} livros em {}", rows, format);
+        return rows;
+    }
+
+    private String toCsv(BookResponse book) {
+        return String.join(",",
+                String.valueOf(book.getBookId()),
+                escapeCsv(book.getTitle()),
+                escapeCsv(book.getAuthor()),
+                escapeCsv(book.getIsbn()));
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!StringUtils.containsAny(value, CSV_SPECIAL_CHARACTERS)) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+}
@@ -1,22 +1,61 @@
 package com.corcino.library.service;
 
+import com.corcino.library.cache.RequestCoalescer;
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.config.MetricsConfig;
+import com.corcino.library.datasource.ReplicaRoutingDataSource;
+import com.corcino.library.dto.BookBatchItemResult;
+import com.corcino.library.dto.BookBatchItemStatus;
+import com.corcino.library.dto.BookBatchResponse;
+import com.corcino.library.dto.BookBulkDeleteResponse;
+import com.corcino.library.dto.BookCursor;
+import com.corcino.library.dto.BookCursorPage;
+import com.corcino.library.dto.BookMultiGetResponse;
 import com.corcino.library.dto.BookRequest;
 import com.corcino.library.dto.BookResponse;
+import com.corcino.library.dto.BookVersion;
 import com.corcino.library.dto.UpdateBookRequest;
+import com.corcino.library.error.exception.BadRequestException;
+import com.corcino.library.error.exception.ConflictException;
 import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.error.exception.PreconditionFailedException;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.mapper.BookMapper;
 import com.corcino.library.model.Book;
 import com.corcino.library.repository.BookRepository;
+import com.corcino.library.search.BookSearchIndex;
+import com.corcino.library.search.SearchField;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.modelmapper.ModelMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -24,51 +63,355 @@ import java.util.Optional;
 @Setter
 public class BookService {
 
-    private ModelMapper modelMapper;
+    private static final List<String> SELECTABLE_FIELDS = List.of("bookId", "title", "author", "isbn");
+
+    private BookMapper bookMapper;
     private BookRepository bookRepository;
+    private Validator validator;
+    private LibraryProperties libraryProperties;
+    private ApplicationEventPublisher eventPublisher;
+    private BookSearchIndex bookSearchIndex;
+    private CacheManager cacheManager;
+    private RequestCoalescer requestCoalescer;
+    private PlatformTransactionManager transactionManager;
+    private EntityManager entityManager;
 
+    /**
+     * Identical concurrent listings share one query. The transaction is opened inside the coalesced load, so callers
+     * waiting for it do not hold a connection.
+     */
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public Page<BookResponse> listBooks(String author, Pageable pageable) {
-        Page<Book> books;
+        return requestCoalescer.execute("listBooks", coalescingKey(author, pageable), () -> readOnly(() -> {
+            Page<Book> books;
+
+            if (StringUtils.isNotBlank(author)) {
+                books = bookRepository.findByAuthorContaining(author, pageable);
+            } else {
+                books = bookRepository.findAll(pageable);
+            }
+
+            return bookMapper.toResponsePage(books);
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Page<Map<String, Object>> listBookFields(String author, String fields, Pageable pageable) {
+        return bookRepository.findFieldsByAuthorContaining(parseFields(fields), author, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Map<String, Object> getBookFieldsById(Long bookId, String fields) {
+        return bookRepository.findFieldsById(parseFields(fields), bookId).orElseThrow(() -> {
+            log.error("Livro de id {} nao encontrado", bookId);
+            return new ObjectNotFoundException("Book not found");
+        });
+    }
 
-        if (StringUtils.isNotBlank(author)) {
-            books = bookRepository.findByAuthorContaining(author, pageable);
-        } else {
-            books = bookRepository.findAll(pageable);
+    private Set<String> parseFields(String fields) {
+        Set<String> selectedFields = Arrays.stream(StringUtils.split(StringUtils.defaultString(fields), ','))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        if (selectedFields.isEmpty()) {
+            throw new BadRequestException("At least one field must be selected");
         }
+        selectedFields.stream()
+                .filter(field -> !SELECTABLE_FIELDS.contains(field))
+                .findFirst()
+                .ifPresent(field -> {
+                    throw new BadRequestException("Unknown field " + field + ". Selectable fields are " + SELECTABLE_FIELDS);
+                });
+        return selectedFields;
+    }
 
-        return new BookResponse().convertList(books);
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Page<BookResponse> searchBooks(String query, String field, Pageable pageable) {
+        if (StringUtils.isBlank(query)) {
+            throw new BadRequestException("Search query is mandatory");
+        }
+
+        List<Long> matchingIds = new ArrayList<>(bookSearchIndex.search(query, SearchField.fromName(field)));
+        int from = (int) Math.min(pageable.getOffset(), matchingIds.size());
+        List<Long> pageIds = matchingIds.subList(from, Math.min(from + pageable.getPageSize(), matchingIds.size()));
+
+        List<BookResponse> books = pageIds.isEmpty() ? Collections.emptyList() : bookRepository.findAllById(pageIds).stream()
+                .sorted(Comparator.comparing(Book::getBookId))
+                .map(bookMapper::toResponse)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(books, pageable, matchingIds.size());
     }
 
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public BookCursorPage listBooksByCursor(String cursor, String sort, Integer size) {
+        BookCursor bookCursor = StringUtils.isNotBlank(cursor) ? BookCursor.decode(cursor) : null;
+        BookCursor.SortKey sortKey = bookCursor != null ? bookCursor.getSortKey() : BookCursor.SortKey.fromProperty(sort);
+        Pageable pageable = PageRequest.of(0, resolveCursorSize(size), Sort.by(Sort.Direction.ASC, sortKey.getProperty()));
+
+        Slice<Book> books = bookCursor == null ? bookRepository.findAllBy(pageable) : seekAfter(bookCursor, pageable);
+
+        String nextCursor = books.hasNext() && books.hasContent()
+                ? BookCursor.after(sortKey, books.getContent().get(books.getNumberOfElements() - 1)).encode()
+                : null;
+
+        return BookCursorPage.builder()
+                .content(bookMapper.toResponses(books.getContent()))
+                .size(pageable.getPageSize())
+                .numberOfElements(books.getNumberOfElements())
+                .hasNext(books.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Slice<Book> seekAfter(BookCursor bookCursor, Pageable pageable) {
+        switch (bookCursor.getSortKey()) {
+            case TITLE:
+                return bookRepository.findByTitleGreaterThan(bookCursor.getLastValue(), pageable);
+            case ISBN:
+                return bookRepository.findByIsbnGreaterThan(bookCursor.getLastValue(), pageable);
+            default:
+                return bookRepository.findByBookIdGreaterThan(parseBookId(bookCursor.getLastValue()), pageable);
+        }
+    }
+
+    private Long parseBookId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private int resolveCursorSize(Integer size) {
+        LibraryProperties.Cursor cursorProperties = libraryProperties.getCursor();
+        if (size == null) {
+            return cursorProperties.getDefaultSize();
+        }
+        if (size < 1 || size > cursorProperties.getMaxSize()) {
+            throw new BadRequestException("Size must be between 1 and " + cursorProperties.getMaxSize());
+        }
+        return size;
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public BookResponse createBook(BookRequest bookRequest) throws Exception {
-        Book book = modelMapper.map(bookRequest, Book.class);
-        validateDataIntegrityOf(book);
+        Book book = bookMapper.toBook(bookRequest);
 
         log.info("Saving book");
         Book bookSaved = saveBook(book);
-        return modelMapper.map(bookSaved, BookResponse.class);
+        eventPublisher.publishEvent(BookChangedEvent.created(bookSaved));
+        return bookMapper.toResponse(bookSaved);
+    }
+
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public BookBatchResponse createBooks(List<BookRequest> bookRequests) {
+        if (bookRequests.size() > libraryProperties.getBulk().getMaxSize()) {
+            throw new BadRequestException("Bulk request exceeds " + libraryProperties.getBulk().getMaxSize() + " books");
+        }
+
+        BookBatchItemResult[] results = new BookBatchItemResult[bookRequests.size()];
+        Map<Integer, Book> candidates = new LinkedHashMap<>();
+
+        for (int index = 0; index < bookRequests.size(); index++) {
+            BookRequest bookRequest = bookRequests.get(index);
+            if (bookRequest == null) {
+                results[index] = itemResult(index, BookBatchItemStatus.INVALID, null, "Book is mandatory");
+                continue;
+            }
+
+            Set<ConstraintViolation<BookRequest>> violations = validator.validate(bookRequest);
+            if (violations.isEmpty()) {
+                candidates.put(index, bookMapper.toBook(bookRequest));
+            } else {
+                results[index] = itemResult(index, BookBatchItemStatus.INVALID, null, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+
+        List<Book> booksToSave = filterConflicts(candidates, results);
+
+        log.info("Saving {} books in batches of {}", booksToSave.size(), libraryProperties.getBulk().getBatchSize());
+        saveInBatches(booksToSave);
+
+        candidates.forEach((index, book) -> {
+            if (results[index] == null) {
+                results[index] = itemResult(index, BookBatchItemStatus.CREATED, book.getBookId(), null);
+            }
+        });
+
+        return buildBatchResponse(Arrays.asList(results));
+    }
+
+    private List<Book> filterConflicts(Map<Integer, Book> candidates, BookBatchItemResult[] results) {
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> usedIsbns = new HashSet<>(bookRepository.findExistingIsbns(
+                candidates.values().stream().map(Book::getIsbn).collect(Collectors.toSet())));
+        Set<String> usedTitles = new HashSet<>(bookRepository.findExistingTitles(
+                candidates.values().stream().map(Book::getTitle).collect(Collectors.toSet())));
+
+        List<Book> booksToSave = new ArrayList<>(candidates.size());
+
+        candidates.forEach((index, book) -> {
+            if (usedIsbns.contains(book.getIsbn())) {
+                results[index] = itemResult(index, BookBatchItemStatus.CONFLICT, null, "Isbn already used");
+            } else if (usedTitles.contains(book.getTitle())) {
+                results[index] = itemResult(index, BookBatchItemStatus.CONFLICT, null, "Title already used");
+            } else {
+                usedIsbns.add(book.getIsbn());
+                usedTitles.add(book.getTitle());
+                booksToSave.add(book);
+            }
+        });
+
+        return booksToSave;
+    }
+
+    private void saveInBatches(List<Book> books) {
+        int batchSize = libraryProperties.getBulk().getBatchSize();
+
+        for (int from = 0; from < books.size(); from += batchSize) {
+            bookRepository.saveAll(books.subList(from, Math.min(from + batchSize, books.size())));
+            bookRepository.flush();
+            // flushed books need no more dirty checking; left managed, every flush would check all earlier batches again
+            entityManager.clear();
+        }
+        books.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+    }
+
+    private BookBatchItemResult itemResult(int index, BookBatchItemStatus status, Long bookId, String message) {
+        return BookBatchItemResult.builder()
+                .index(index)
+                .status(status)
+                .bookId(bookId)
+                .message(message)
+                .build();
+    }
+
+    private BookBatchResponse buildBatchResponse(List<BookBatchItemResult> items) {
+        Map<BookBatchItemStatus, Long> totals = items.stream()
+                .collect(Collectors.groupingBy(BookBatchItemResult::getStatus, Collectors.counting()));
+
+        return BookBatchResponse.builder()
+                .created(totals.getOrDefault(BookBatchItemStatus.CREATED, 0L).intValue())
+                .conflicts(totals.getOrDefault(BookBatchItemStatus.CONFLICT, 0L).intValue())
+                .invalid(totals.getOrDefault(BookBatchItemStatus.INVALID, 0L).intValue())
+                .items(items)
+                .build();
     }
 
     private Book saveBook(Book book) throws Exception {
         try {
-            return bookRepository.save(book);
+            return bookRepository.saveAndFlush(book);
+        }
+        catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e);
+        }
+        catch (OptimisticLockingFailureException e) {
+            throw e;
         }
         catch (Exception e) {
             throw new Exception("Error saving book");
         }
     }
 
-    private void validateDataIntegrityOf(Book book) {
-        if (bookRepository.existsByIsbn(book.getIsbn())) {
-            throw new DataIntegrityViolationException("Isbn already used");
+    private DataIntegrityViolationException translateUniqueViolation(DataIntegrityViolationException e) {
+        String cause = StringUtils.lowerCase(NestedExceptionUtils.getMostSpecificCause(e).getMessage(), Locale.ROOT);
+
+        if (StringUtils.contains(cause, Book.UNIQUE_ISBN)) {
+            return new ConflictException("Isbn already used", e);
         }
-        if (bookRepository.existsByTitle(book.getTitle())) {
-            throw new DataIntegrityViolationException("Title already used");
+        if (StringUtils.contains(cause, Book.UNIQUE_TITLE)) {
+            return new ConflictException("Title already used", e);
         }
+        return e;
     }
 
+    /**
+     * Cache misses for the same id that arrive together share one database read, opened inside the coalesced load
+     * like {@link #listBooks}.
+     */
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE, key = "#bookId")
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public BookResponse getBookById(Long bookId) {
-        Book book = getBook(bookId);
-        return modelMapper.map(book, BookResponse.class);
+        return requestCoalescer.execute("getBookById", coalescingKey(bookId), () -> readOnly(() -> bookMapper.toResponse(getBook(bookId))));
+    }
+
+    // the load runs on the thread of the first caller, so a caller pinned to the primary by read-your-writes must not
+    // join a load that reads from the replica
+    private static List<Object> coalescingKey(Object... parts) {
+        List<Object> key = new ArrayList<>(Arrays.asList(parts));
+        key.add(ReplicaRoutingDataSource.isPinnedToPrimary());
+        return key;
+    }
+
+    /**
+     * Resolves many ids at once: cached books are served from the read cache and the rest are loaded with a single
+     * IN query. Ids that do not exist are reported instead of failing the batch.
+     */
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public BookMultiGetResponse getBooksByIds(List<Long> bookIds) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(bookIds);
+        if (uniqueIds.isEmpty() || uniqueIds.size() > libraryProperties.getMultiGet().getMaxIds()) {
+            throw new BadRequestException("Multi-get accepts between 1 and " + libraryProperties.getMultiGet().getMaxIds() + " ids");
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        Map<Long, BookResponse> found = new HashMap<>();
+        List<Long> cacheMisses = new ArrayList<>();
+
+        for (Long bookId : uniqueIds) {
+            BookResponse cached = cache != null ? cache.get(bookId, BookResponse.class) : null;
+            if (cached != null) {
+                found.put(bookId, cached);
+            } else {
+                cacheMisses.add(bookId);
+            }
+        }
+
+        if (!cacheMisses.isEmpty()) {
+            log.info("Buscando {} livros fora do cache", cacheMisses.size());
+            bookRepository.findAllById(cacheMisses).forEach(book -> {
+                BookResponse bookResponse = bookMapper.toResponse(book);
+                found.put(book.getBookId(), bookResponse);
+                if (cache != null) {
+                    cache.put(book.getBookId(), bookResponse);
+                }
+            });
+        }
+
+        return BookMultiGetResponse.builder()
+                .books(uniqueIds.stream().filter(found::containsKey).map(found::get).collect(Collectors.toList()))
+                .missing(uniqueIds.stream().filter(bookId -> !found.containsKey(bookId)).collect(Collectors.toList()))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public BookVersion getBookVersion(Long bookId) {
+        return bookRepository.findVersionById(bookId).orElseThrow(() -> {
+            log.error("Livro de id {} nao encontrado", bookId);
+            return new ObjectNotFoundException("Book not found");
+        });
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> query.get());
     }
 
     private Book getBook(Long bookId) {
@@ -81,35 +424,93 @@ public class BookService {
         });
     }
 
+    @Transactional(rollbackFor = Exception.class)
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public BookResponse updateBook(UpdateBookRequest updateBook, Long bookId) throws Exception {
         Book book = getBook(bookId);
 
-        if (StringUtils.isNotBlank(updateBook.getTitle()) && bookRepository.existsByTitle(updateBook.getTitle())) {
-            throw new DataIntegrityViolationException("Title already used");
-        } else if (StringUtils.isNotBlank(updateBook.getTitle())) {
-            book.setTitle(updateBook.getTitle());
+        if (updateBook.hasTitle() && bookRepository.existsByTitle(updateBook.getTitle())) {
+            throw new ConflictException("Title already used");
+        }
+        if (updateBook.hasIsbn() && bookRepository.existsByIsbn(updateBook.getIsbn())) {
+            throw new ConflictException("Isbn already used");
         }
+        bookMapper.updateBook(updateBook, book);
 
-        if (StringUtils.isNotBlank(updateBook.getIsbn()) && bookRepository.existsByIsbn(updateBook.getIsbn())) {
-            throw new DataIntegrityViolationException("Isbn already used");
-        } else if (StringUtils.isNotBlank(updateBook.getIsbn())) {
-            book.setIsbn(updateBook.getIsbn());
+        log.info("Atualizando livro " + book.getBookId());
+        Book bookUpdated = saveBook(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(bookUpdated));
+
+        return bookMapper.toResponse(bookUpdated);
+    }
+
+    /**
+     * Applies the non-blank fields of the request with a single conditional UPDATE that only matches the expected
+     * version, and returns the new version.
+     */
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public long patchBook(UpdateBookRequest patch, Long bookId, long expectedVersion) {
+        String title = StringUtils.defaultIfBlank(patch.getTitle(), null);
+        String author = StringUtils.defaultIfBlank(patch.getAuthor(), null);
+        String isbn = StringUtils.defaultIfBlank(patch.getIsbn(), null);
+
+        if (title == null && author == null && isbn == null) {
+            throw new BadRequestException("No fields to update");
         }
 
-        if (StringUtils.isNotBlank(updateBook.getAuthor())) {
-            book.setAuthor(updateBook.getAuthor());
+        int updated;
+        try {
+            // stamped from the JVM clock like @UpdateTimestamp, not the database's, so both write paths agree
+            updated = bookRepository.patch(bookId, expectedVersion, title, author, isbn, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            throw translateUniqueViolation(e);
         }
 
-        log.info("Atualizando livro " + book.getBookId());
-        Book bookUpdated = saveBook(book);
+        if (updated == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                log.error("Livro de id {} nao encontrado", bookId);
+                throw new ObjectNotFoundException("Book not found");
+            }
+            throw new PreconditionFailedException("Book was modified by another request");
+        }
 
-        return modelMapper.map(bookUpdated, BookResponse.class);
+        log.info("Atualizando parcialmente livro {}", bookId);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, bookId, null));
+        return expectedVersion + 1;
     }
 
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public void deleteBook(Long bookId) {
-        Book book = getBook(bookId);
-        log.info("Deletando livro {}", book.getTitle());
-        bookRepository.deleteById(bookId);
+        log.info("Deletando livro {}", bookId);
+
+        if (bookRepository.deleteByBookId(bookId) == 0) {
+            log.error("Livro de id {} nao encontrado", bookId);
+            throw new ObjectNotFoundException("Book not found");
+        }
+        eventPublisher.publishEvent(BookChangedEvent.deleted(bookId));
+    }
+
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public BookBulkDeleteResponse deleteBooks(List<Long> bookIds) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(bookIds);
+        if (uniqueIds.isEmpty() || uniqueIds.size() > libraryProperties.getBulk().getMaxSize()) {
+            throw new BadRequestException("Bulk delete accepts between 1 and " + libraryProperties.getBulk().getMaxSize() + " ids");
+        }
+
+        log.info("Deletando {} livros", uniqueIds.size());
+        int deleted = bookRepository.deleteByBookIdIn(uniqueIds);
+        // the delete does not say which ids existed; a DELETED for an id that was already gone is a no-op downstream
+        if (deleted > 0) {
+            uniqueIds.forEach(bookId -> eventPublisher.publishEvent(BookChangedEvent.deleted(bookId)));
+        }
+
+        return BookBulkDeleteResponse.builder()
+                .requested(uniqueIds.size())
+                .deleted(deleted)
+                .build();
     }
 
 }
@@ -0,0 +1,76 @@
+package com.corcino.library.service;
+
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.repository.reactive.ReactiveBookRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of the reads in {@link BookService}, over R2DBC. Single books go through the same books
+ * cache, so the evictions that follow writes through the servlet API apply here too.
+ */
+@RequiredArgsConstructor
+public class ReactiveBookService {
+
+    private final ReactiveBookRepository reactiveBookRepository;
+    private final BookMapper bookMapper;
+    private final CacheManager cacheManager;
+
+    public Mono<Page<BookResponse>> listBooks(String author, Pageable pageable) {
+        boolean filtered = StringUtils.isNotBlank(author);
+        Mono<List<BookResponse>> content = (filtered
+                ? reactiveBookRepository.findByAuthorContaining(author, pageable)
+                : reactiveBookRepository.findAllBy(pageable))
+                .map(bookMapper::toResponse)
+                .collectList();
+        Mono<Long> total = filtered
+                ? reactiveBookRepository.countByAuthorContaining(author)
+                : reactiveBookRepository.count();
+
+        return Mono.zip(content, total)
+                .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    /**
+     * Every book matching the filter, emitted as the rows arrive and only as fast as the subscriber requests them.
+     */
+    public Flux<BookResponse> streamBooks(String author, Sort sort) {
+        return (StringUtils.isNotBlank(author)
+                ? reactiveBookRepository.findByAuthorContaining(author, sort)
+                : reactiveBookRepository.findAll(sort))
+                .map(bookMapper::toResponse);
+    }
+
+    public Mono<BookResponse> getBookById(Long bookId) {
+        return Mono.defer(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+            BookResponse cached = cache != null ? cache.get(bookId, BookResponse.class) : null;
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            return reactiveBookRepository.findById(bookId)
+                    .map(bookMapper::toResponse)
+                    .doOnNext(book -> {
+                        if (cache != null) {
+                            cache.put(bookId, book);
+                        }
+                    })
+                    .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("Book not found")));
+        });
+    }
+
+}
@@ -2,14 +2,47 @@ package com.corcino.library.util;
 
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 @Component
 public class DateUtil {
 
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+
+    private static volatile FormattedSecond currentSecond = new FormattedSecond(Long.MIN_VALUE, null);
+
     public static String formatLocalDateTime(LocalDateTime localDateTime) {
-        return DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss").format(localDateTime);
+        return DATE_TIME_FORMATTER.format(localDateTime);
+    }
+
+    /**
+     * The current time in the {@link #formatLocalDateTime} format. The text only changes once per second, so it is
+     * formatted once per second and shared by every caller in between.
+     */
+    public static String currentDateTime() {
+        long epochSecond = Math.floorDiv(System.currentTimeMillis(), 1000L);
+        FormattedSecond formatted = currentSecond;
+
+        if (formatted.epochSecond != epochSecond) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+            formatted = new FormattedSecond(epochSecond, formatLocalDateTime(now));
+            currentSecond = formatted;
+        }
+        return formatted.text;
+    }
+
+    private static final class FormattedSecond {
+
+        private final long epochSecond;
+        private final String text;
+
+        private FormattedSecond(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
     }
 
 }
@@ -0,0 +1,47 @@
+package com.corcino.library.util;
+
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.exception.PreconditionFailedException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+@Component
+public class ETagUtil {
+
+    public static String fromVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static long toVersion(String eTag) {
+        try {
+            return Long.parseLong(StringUtils.removeEnd(StringUtils.removeStart(StringUtils.trim(eTag), "\""), "\""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not hold a version of this book");
+        }
+    }
+
+    /**
+     * Collection ETag built from the id and version of every book in the listing plus the listing metadata, so any
+     * change to a member, to the membership or to the paging yields a different tag.
+     */
+    public static String fromBooks(List<BookResponse> books, Object... listingMetadata) {
+        StringBuilder source = new StringBuilder();
+        for (Object metadata : listingMetadata) {
+            source.append(metadata).append(';');
+        }
+        for (BookResponse book : books) {
+            source.append(book.getBookId()).append(':').append(book.getVersion()).append(',');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    public static long toLastModified(Instant updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+
+}
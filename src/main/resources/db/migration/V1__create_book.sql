@@ -0,0 +1,79 @@
+-- Baseline: the schema Hibernate generates from the Book mapping.
+-- Databases that ddl-auto built from the original mapping (auto_increment id, no version or updated_at, unique keys
+-- named UK_<hash>) are adopted at version 0 and brought to the same shape here, so every step checks the current
+-- schema first and does nothing when it is already there.
+
+create table if not exists book (
+    book_id    bigint       not null,
+    title      varchar(255),
+    author     varchar(255),
+    isbn       varchar(255),
+    version    bigint       not null,
+    updated_at datetime(6),
+    primary key (book_id),
+    constraint uk_book_title unique (title),
+    constraint uk_book_isbn unique (isbn)
+);
+
+-- ids come from book_seq now
+set @ddl = (select if(count(*) > 0, 'alter table book modify book_id bigint not null', 'do 0')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'book' and column_name = 'book_id'
+              and extra like '%auto_increment%');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+-- existing rows start at version 0, as new books do
+set @ddl = (select if(count(*) = 0, 'alter table book add column version bigint not null default 0', 'do 0')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'book' and column_name = 'version');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+alter table book alter column version drop default;
+
+set @ddl = (select if(count(*) = 0, 'alter table book add column updated_at datetime(6)', 'do 0')
+            from information_schema.columns
+            where table_schema = database() and table_name = 'book' and column_name = 'updated_at');
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+-- the duplicate checks map constraint names back to fields, so the generated names are replaced
+set @ddl = (select coalesce(max(concat('alter table book rename index `', index_name, '` to uk_book_title')), 'do 0')
+            from (select index_name
+                  from information_schema.statistics
+                  where table_schema = database() and table_name = 'book' and non_unique = 0
+                  group by index_name
+                  having count(*) = 1 and max(column_name) = 'title') title_keys
+            where index_name <> 'uk_book_title'
+              and not exists (select * from information_schema.statistics
+                              where table_schema = database() and table_name = 'book'
+                                and index_name = 'uk_book_title'));
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+set @ddl = (select coalesce(max(concat('alter table book rename index `', index_name, '` to uk_book_isbn')), 'do 0')
+            from (select index_name
+                  from information_schema.statistics
+                  where table_schema = database() and table_name = 'book' and non_unique = 0
+                  group by index_name
+                  having count(*) = 1 and max(column_name) = 'isbn') isbn_keys
+            where index_name <> 'uk_book_isbn'
+              and not exists (select * from information_schema.statistics
+                              where table_schema = database() and table_name = 'book'
+                                and index_name = 'uk_book_isbn'));
+prepare ddl from @ddl;
+execute ddl;
+deallocate prepare ddl;
+
+-- MySQL has no sequences, so Hibernate emulates book_seq with a single-row table
+create table if not exists book_seq (
+    next_val bigint
+);
+
+insert into book_seq (next_val)
+select 1 from dual where not exists (select * from book_seq);
@@ -0,0 +1,10 @@
+-- title, isbn and book_id are already covered by the unique constraints and the primary key, which serve the
+-- exists* checks, the duplicate lookups and the cursor seeks on those columns.
+
+-- sort=author. findByAuthorContaining uses a leading-wildcard LIKE, which cannot seek on this index; at best its
+-- count scans the index instead of the clustered rows. The implicit book_id suffix sorts within each author only,
+-- so the default bookId ordering of those searches still needs a sort
+create index idx_book_author on book (author);
+
+-- sort=updatedAt
+create index idx_book_updated_at on book (updated_at);
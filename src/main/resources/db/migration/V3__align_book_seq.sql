@@ -0,0 +1,7 @@
+-- Rows created while book_id was auto_increment are not known to book_seq, which starts at 1. With allocationSize 50
+-- Hibernate's pooled optimizer reads next_val as the top of the block it hands out (next_val - 49 .. next_val), so
+-- next_val has to sit at least a full block above the highest id; the block boundary is kept for readability.
+update book_seq
+set next_val = (select (floor(max(book_id) / 50) + 2) * 50 from book)
+where (select max(book_id) from book) is not null
+  and next_val - 49 <= (select max(book_id) from book);
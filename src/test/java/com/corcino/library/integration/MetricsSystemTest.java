@@ -0,0 +1,52 @@
+package com.corcino.library.integration;
+
+import com.corcino.library.config.MetricsConfig;
+import com.corcino.library.repository.BookRepository;
+import com.corcino.library.util.BookCreator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "library.metrics.hibernate-statistics=true")
+public class MetricsSystemTest extends SystemTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void cleanerDatabase() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("should_register_the_service_timer_and_hibernate_meters")
+    public void registerMeters() {
+        assertThat(doPost(BookCreator.bookJavaToBeSaved()).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        Timer serviceTimer = meterRegistry.find(MetricsConfig.SERVICE_TIMER).tag("method", "createBook").timer();
+        assertThat(serviceTimer).isNotNull();
+        assertThat(serviceTimer.count()).isPositive();
+
+        FunctionCounter sessions = meterRegistry.find("hibernate.sessions.open").functionCounter();
+        assertThat(sessions).isNotNull();
+        assertThat(sessions.count()).isPositive();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.corcino.library.unit.cache;
+
+import com.corcino.library.cache.BookCacheInvalidator;
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.util.BookCreator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookCacheInvalidatorTest {
+
+    private Cache cache;
+    private BookCacheInvalidator bookCacheInvalidator;
+
+    @BeforeEach
+    public void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE);
+        cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        cache.put(1L, BookCreator.bookGolangPersisted());
+        cache.put(2L, BookCreator.bookJavaPersisted());
+
+        bookCacheInvalidator = new BookCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    @DisplayName("should_evict_only_the_deleted_book")
+    public void evictOnDelete() {
+        bookCacheInvalidator.onBookChanged(BookChangedEvent.deleted(1L));
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L, BookResponse.class)).isEqualTo(BookCreator.bookJavaPersisted());
+    }
+
+    @Test
+    @DisplayName("should_evict_the_updated_book")
+    public void evictOnUpdate() {
+        bookCacheInvalidator.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 2L, null));
+
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(1L)).isNotNull();
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.corcino.library.unit.cache;
+
+import com.corcino.library.cache.RequestCoalescer;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class RequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescer = new RequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should_share_one_load_between_concurrent_callers_of_the_same_key")
+    public void collapseConcurrentCalls() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                requestCoalescer.execute("getBookById", 1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "Effective Java";
+                }), callers);
+        awaitCount("executed", 1);
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() ->
+                requestCoalescer.execute("getBookById", 1L, () -> {
+                    loads.incrementAndGet();
+                    return "reloaded";
+                }), callers);
+        awaitCount("collapsed", 1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Effective Java");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("Effective Java");
+        assertThat(loads).hasValue(1);
+        callers.shutdown();
+    }
+
+    @Test
+    @DisplayName("should_load_again_once_the_previous_flight_finished")
+    public void loadAgainAfterCompletion() {
+        AtomicInteger loads = new AtomicInteger();
+
+        requestCoalescer.execute("getBookById", 1L, loads::incrementAndGet);
+        requestCoalescer.execute("getBookById", 1L, loads::incrementAndGet);
+        requestCoalescer.execute("listBooks", 1L, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(3);
+        assertThat(meterRegistry.find(RequestCoalescer.REQUESTS).tag("result", "collapsed").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("should_propagate_the_exception_of_the_load")
+    public void propagateException() {
+        Throwable exception = catchThrowable(() -> requestCoalescer.execute("getBookById", 1L, () -> {
+            throw new ObjectNotFoundException("Book not found");
+        }));
+
+        assertThat(exception).isInstanceOf(ObjectNotFoundException.class).hasMessage("Book not found");
+    }
+
+    private void awaitCount(String result, double expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            if (meterRegistry.find(RequestCoalescer.REQUESTS).tag("result", result).counter() != null
+                    && meterRegistry.get(RequestCoalescer.REQUESTS).tag("result", result).counter().count() == expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No " + result + " request was recorded");
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
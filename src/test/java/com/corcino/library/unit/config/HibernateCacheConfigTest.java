@@ -0,0 +1,51 @@
+package com.corcino.library.unit.config;
+
+import com.corcino.library.config.HibernateCacheConfig;
+import com.corcino.library.config.LibraryProperties;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HibernateCacheConfigTest {
+
+    private CacheManager cacheManager;
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    @DisplayName("should_create_configured_regions_with_size_and_ttl")
+    public void createRegions() {
+        LibraryProperties.Region book = new LibraryProperties.Region();
+        book.setMaximumSize(500);
+        book.setExpireAfterWrite(Duration.ofMinutes(2));
+        LibraryProperties.Region timestamps = new LibraryProperties.Region();
+
+        LibraryProperties libraryProperties = new LibraryProperties();
+        libraryProperties.getHibernateCache().getRegions().put("book", book);
+        libraryProperties.getHibernateCache().getRegions().put("default-update-timestamps-region", timestamps);
+
+        cacheManager = new HibernateCacheConfig().hibernateCacheManager(libraryProperties);
+
+        @SuppressWarnings("unchecked")
+        CaffeineConfiguration<Object, Object> bookConfiguration = cacheManager.getCache("book")
+                .getConfiguration(CaffeineConfiguration.class);
+        @SuppressWarnings("unchecked")
+        CaffeineConfiguration<Object, Object> timestampsConfiguration = cacheManager.getCache("default-update-timestamps-region")
+                .getConfiguration(CaffeineConfiguration.class);
+
+        assertThat(bookConfiguration.getMaximumSize()).hasValue(500);
+        assertThat(bookConfiguration.getExpireAfterWrite()).hasValue(Duration.ofMinutes(2).toNanos());
+        assertThat(bookConfiguration.isStatisticsEnabled()).isTrue();
+        assertThat(timestampsConfiguration.getExpireAfterWrite()).isEmpty();
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.corcino.library.unit.config;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.config.VirtualThreadConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    @DisplayName("should_fail_fast_when_the_concurrency_limit_is_also_enabled")
+    public void refuseConcurrencyLimit() {
+        LibraryProperties libraryProperties = new LibraryProperties();
+
+        assertThatThrownBy(() -> new VirtualThreadConfig(libraryProperties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("library.concurrency-limit.enabled=false");
+    }
+
+    @Test
+    @DisplayName("should_start_when_the_concurrency_limit_is_disabled")
+    public void startWithoutConcurrencyLimit() {
+        LibraryProperties libraryProperties = new LibraryProperties();
+        libraryProperties.getConcurrencyLimit().setEnabled(false);
+
+        assertThat(new VirtualThreadConfig(libraryProperties)).isNotNull();
+    }
+
+}
@@ -1,9 +1,23 @@
 package com.corcino.library.unit.controller;
 
+import com.corcino.library.dto.BookBatchItemResult;
+import com.corcino.library.dto.BookBatchItemStatus;
+import com.corcino.library.dto.BookBatchResponse;
+import com.corcino.library.dto.BookBulkDeleteResponse;
+import com.corcino.library.dto.BookCursorPage;
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookMultiGetResponse;
 import com.corcino.library.dto.BookRequest;
 import com.corcino.library.dto.BookResponse;
+import com.corcino.library.dto.BookVersion;
 import com.corcino.library.dto.UpdateBookRequest;
 import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.error.exception.PreconditionFailedException;
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import com.corcino.library.feed.BookChangeFeed;
+import com.corcino.library.importer.BookImportJob;
+import com.corcino.library.importer.BookImporter;
+import com.corcino.library.service.BookExportService;
 import com.corcino.library.service.BookService;
 import com.corcino.library.util.BookCreator;
 import com.corcino.library.util.JsonUtil;
@@ -18,18 +32,28 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
@@ -46,6 +70,15 @@ public class BookControllerTest extends ControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookExportService bookExportService;
+
+    @MockBean
+    private BookImporter bookImporter;
+
+    @MockBean
+    private BookChangeFeed bookChangeFeed;
+
     @Test
     @DisplayName("should_return_paginated_list_of_books")
     public void listBookPaginated() throws Exception {
@@ -93,6 +126,147 @@ public class BookControllerTest extends ControllerTest {
                 .andExpect(content().json("{'size': 10}"));
     }
 
+    @Test
+    @DisplayName("should_return_slice_of_books_by_cursor")
+    public void listBooksByCursor() throws Exception {
+        BookCursorPage cursorPage = BookCursorPage.builder()
+                .content(List.of(BookCreator.bookGolangPersisted()))
+                .size(1)
+                .numberOfElements(1)
+                .hasNext(true)
+                .nextCursor("Ym9va0lkOjE")
+                .build();
+        BDDMockito.when(bookService.listBooksByCursor(any(), eq("bookId"), eq(1))).thenReturn(cursorPage);
+
+        MockHttpServletRequestBuilder request = configureGetRequestWithQueryString("/cursor?size=1");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("Ym9va0lkOjE"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("should_return_many_books_by_id_reporting_missing")
+    public void getBooksByIds() throws Exception {
+        BookMultiGetResponse multiGetResponse = new BookMultiGetResponse(List.of(BookCreator.bookJavaPersisted()), List.of(7L));
+        BDDMockito.when(bookService.getBooksByIds(List.of(2L, 7L))).thenReturn(multiGetResponse);
+
+        MockHttpServletRequestBuilder request = configureGetRequestWithQueryString("?ids=2,7");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].title").value("Effective Java"))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+    }
+
+    @Test
+    @DisplayName("should_reject_field_selection_on_a_multi_get")
+    public void getBooksByIdsWithFields() throws Exception {
+        MockHttpServletRequestBuilder request = configureGetRequestWithQueryString("?ids=2,7&fields=title");
+
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("Field selection is not supported together with ids"));
+
+        Mockito.verifyNoInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("should_return_only_requested_fields")
+    public void getBookFieldsById() throws Exception {
+        BDDMockito.when(bookService.getBookFieldsById(eq(1L), eq("bookId,title"))).thenReturn(Map.of("bookId", 1L, "title", "Effective Java"));
+
+        MockHttpServletRequestBuilder request = configureGetRequestWithQueryString("/1?fields=bookId,title");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Effective Java"))
+                .andExpect(jsonPath("$.author").doesNotExist());
+
+        Mockito.verify(bookService, Mockito.never()).getBookById(any());
+    }
+
+    @Test
+    @DisplayName("should_resume_change_feed_from_last_event_id")
+    public void subscribeToChanges() throws Exception {
+        BDDMockito.when(bookChangeFeed.subscribe(eq(42L))).thenReturn(new SseEmitter());
+
+        MockHttpServletRequestBuilder changesRequest = get(BOOK_API + "/changes?since=7")
+                .header("Last-Event-ID", "42")
+                .accept(MediaType.TEXT_EVENT_STREAM);
+
+        mockMvc.perform(changesRequest)
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @DisplayName("should_stream_gzip_csv_export")
+    public void exportBooks() throws Exception {
+        Runnable releaseSlot = Mockito.mock(Runnable.class);
+        BDDMockito.when(bookExportService.reserveSlot()).thenReturn(releaseSlot);
+
+        MvcResult result = mockMvc.perform(configureGetRequestWithQueryString("/export?format=csv&gzip=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("books.csv")))
+                .andExpect(content().contentType("text/csv"));
+
+        Mockito.verify(bookExportService).exportBooks(eq(BookFileFormat.CSV), any());
+        Mockito.verify(releaseSlot).run();
+    }
+
+    @Test
+    @DisplayName("should_return_service_unavailable_when_every_export_slot_is_taken")
+    public void exportBooksWithoutSlot() throws Exception {
+        BDDMockito.when(bookExportService.reserveSlot())
+                .thenThrow(new ServiceUnavailableException("Too many exports running. Retry later",
+                        Duration.ofSeconds(1)));
+
+        mockMvc.perform(configureGetRequestWithQueryString("/export"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        Mockito.verify(bookExportService, Mockito.never()).exportBooks(any(), any());
+    }
+
+    @Test
+    @DisplayName("should_return_bad_request_when_export_format_is_unknown")
+    public void exportBooksWithUnknownFormat() throws Exception {
+        mockMvc.perform(configureGetRequestWithQueryString("/export?format=xml"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(bookExportService);
+    }
+
+    @Test
+    @DisplayName("should_accept_import_and_point_to_job_status")
+    public void importBooks() throws Exception {
+        BookImportJob job = new BookImportJob(BookFileFormat.CSV, 10);
+        BDDMockito.when(bookImporter.submit(any(), eq(BookFileFormat.CSV))).thenReturn(job);
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                "title,author,isbn\nEffective Java,Joshua Bloch,0134685997\n".getBytes());
+
+        mockMvc.perform(multipart(BOOK_API + "/import").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", BOOK_API + "/import/" + job.getJobId()))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("should_return_not_found_when_import_job_is_unknown")
+    public void getUnknownImport() throws Exception {
+        BDDMockito.when(bookImporter.getJob(eq("missing"))).thenThrow(new ObjectNotFoundException("Import job not found"));
+
+        mockMvc.perform(configureGetRequestWithQueryString("/import/missing"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("should_return_book_find_by_id")
     public void getBookById() throws Exception {
@@ -106,6 +280,51 @@ public class BookControllerTest extends ControllerTest {
                 .andExpect(jsonPath("$.author").value("Joshua Bloch"));
     }
 
+    @Test
+    @DisplayName("should_return_not_modified_without_loading_the_book")
+    public void getBookByIdNotModified() throws Exception {
+        BDDMockito.when(bookService.getBookVersion(eq(1L))).thenReturn(new BookVersion(3L, Instant.parse("2021-11-01T10:15:30Z")));
+
+        MockHttpServletRequestBuilder request = configureGetRequestWithId(1L).header("If-None-Match", "\"3\"");
+
+        mockMvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        Mockito.verify(bookService, Mockito.never()).getBookById(any());
+    }
+
+    @Test
+    @DisplayName("should_return_book_when_etag_is_stale")
+    public void getBookByIdStaleETag() throws Exception {
+        BookResponse bookResponse = BookCreator.bookJavaPersisted();
+        bookResponse.setVersion(4L);
+        BDDMockito.when(bookService.getBookVersion(eq(1L))).thenReturn(new BookVersion(4L, null));
+        BDDMockito.when(bookService.getBookById(eq(1L))).thenReturn(bookResponse);
+
+        MockHttpServletRequestBuilder request = configureGetRequestWithId(1L).header("If-None-Match", "\"3\"");
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.title").value("Effective Java"));
+    }
+
+    @Test
+    @DisplayName("should_return_not_modified_for_unchanged_page")
+    public void listBookNotModified() throws Exception {
+        PageImpl<BookResponse> bookListPaginated = new PageImpl<>(List.of(BookCreator.bookJavaPersisted()), buildPageable(), 1);
+        BDDMockito.when(bookService.listBooks(any(), any())).thenReturn(bookListPaginated);
+
+        String eTag = mockMvc.perform(configureGetRequestWithQueryString("/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(configureGetRequestWithQueryString("/").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("should_return_not_found_search_book_by_id_nonexistent")
     public void getBookByIdNotFound() throws Exception {
@@ -169,6 +388,28 @@ public class BookControllerTest extends ControllerTest {
                 .andExpect(jsonPath("$.title").value("Title already used"));
     }
 
+    @Test
+    @DisplayName("should_create_books_in_bulk")
+    public void createBooksInBulk() throws Exception {
+        BookBatchResponse batchResponse = BookBatchResponse.builder()
+                .created(1)
+                .conflicts(1)
+                .items(Arrays.asList(
+                        new BookBatchItemResult(0, BookBatchItemStatus.CREATED, 1L, null),
+                        new BookBatchItemResult(1, BookBatchItemStatus.CONFLICT, null, "Isbn already used")))
+                .build();
+        BDDMockito.given(bookService.createBooks(Mockito.anyList())).willReturn(batchResponse);
+
+        String bookRequestsJson = JsonUtil.toJson(Arrays.asList(BookCreator.bookGolangToBeSaved(), BookCreator.bookGolangToBeSaved()));
+        MockHttpServletRequestBuilder request = configurePostBulkRequest(bookRequestsJson);
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].message").value("Isbn already used"));
+    }
+
     @Test
     @DisplayName("should_update_book_successfully")
     public void updateBook() throws Exception {
@@ -197,62 +438,64 @@ public class BookControllerTest extends ControllerTest {
     }
 
     @Test
-    @DisplayName("should_delete_book_successfully")
-    public void deleteBook() throws Exception {
-        Mockito.doNothing().when(bookService).deleteBook(eq(2L));
+    @DisplayName("should_patch_book_with_if_match_version")
+    public void patchBook() throws Exception {
+        Mockito.when(bookService.patchBook(any(UpdateBookRequest.class), eq(1L), eq(3L))).thenReturn(4L);
 
-        MockHttpServletRequestBuilder deleteRequest = configureDeleteRequestWithId();
+        String updateBookRequestJson = JsonUtil.toJson(BookCreator.bookGolangToUpdate());
+        MockHttpServletRequestBuilder patchRequest = configurePatchRequest(1L, updateBookRequestJson).header("If-Match", "\"3\"");
 
-        mockMvc.perform(deleteRequest)
-                .andExpect(status().isNoContent());
+        mockMvc.perform(patchRequest)
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"4\""));
     }
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+    @Test
+    @DisplayName("should_require_if_match_to_patch_book")
+    public void patchBookWithoutIfMatch() throws Exception {
+        String updateBookRequestJson = JsonUtil.toJson(BookCreator.bookGolangToUpdate());
+        MockHttpServletRequestBuilder patchRequest = configurePatchRequest(1L, updateBookRequestJson);
 
+        mockMvc.perform(patchRequest)
+                .andExpect(status().isPreconditionRequired());
+    }
 
+    @Test
+    @DisplayName("should_return_precondition_failed_on_stale_patch")
+    public void patchBookStaleVersion() throws Exception {
+        Mockito.when(bookService.patchBook(any(UpdateBookRequest.class), eq(1L), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Book was modified by another request"));
 
+        String updateBookRequestJson = JsonUtil.toJson(BookCreator.bookGolangToUpdate());
+        MockHttpServletRequestBuilder patchRequest = configurePatchRequest(1L, updateBookRequestJson).header("If-Match", "\"2\"");
 
+        mockMvc.perform(patchRequest)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorMessage").value("Book was modified by another request"));
+    }
 
+    @Test
+    @DisplayName("should_delete_book_successfully")
+    public void deleteBook() throws Exception {
+        Mockito.doNothing().when(bookService).deleteBook(eq(2L));
 
+        MockHttpServletRequestBuilder deleteRequest = configureDeleteRequestWithId();
 
+        mockMvc.perform(deleteRequest)
+                .andExpect(status().isNoContent());
+    }
 
+    @Test
+    @DisplayName("should_delete_books_in_bulk")
+    public void deleteBooksInBulk() throws Exception {
+        Mockito.when(bookService.deleteBooks(List.of(1L, 2L))).thenReturn(new BookBulkDeleteResponse(2, 1));
 
+        MockHttpServletRequestBuilder deleteRequest = configureDeleteRequestWithQueryString("?ids=1,2");
 
+        mockMvc.perform(deleteRequest)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.deleted").value(1));
+    }
 
+}
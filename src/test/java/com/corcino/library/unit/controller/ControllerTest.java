@@ -32,6 +32,13 @@ public class ControllerTest {
                 .content(bookRequestJson);
     }
 
+    protected MockHttpServletRequestBuilder configurePostBulkRequest(String bookRequestsJson) {
+        return post(BOOK_API + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(bookRequestsJson);
+    }
+
     protected MockHttpServletRequestBuilder configurePutRequest(Long bookId, String bookRequestJson) {
         return put(BOOK_API + "/{bookId}", bookId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -39,12 +46,25 @@ public class ControllerTest {
                 .content(bookRequestJson);
     }
 
+    protected MockHttpServletRequestBuilder configurePatchRequest(Long bookId, String bookRequestJson) {
+        return patch(BOOK_API + "/{bookId}", bookId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(bookRequestJson);
+    }
+
     protected MockHttpServletRequestBuilder configureDeleteRequestWithId() {
         return delete(BOOK_API + "/{bookId}", 2)
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON);
     }
 
+    protected MockHttpServletRequestBuilder configureDeleteRequestWithQueryString(String query) {
+        return delete(BOOK_API + query)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON);
+    }
+
     protected Pageable buildPageable() {
         return PageRequest.of(0, 10, Sort.Direction.ASC, "bookId");
     }
@@ -0,0 +1,183 @@
+package com.corcino.library.unit.controller;
+
+import com.corcino.library.controller.ReactiveBookHandler;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.service.ReactiveBookService;
+import com.corcino.library.util.BookCreator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class ReactiveBookHandlerTest {
+
+    private static final String BOOK_API = "/api/v1/book";
+
+    private ReactiveBookService reactiveBookService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setUp() {
+        reactiveBookService = Mockito.mock(ReactiveBookService.class);
+        webTestClient = WebTestClient.bindToRouterFunction(new ReactiveBookHandler(reactiveBookService, 100).routes())
+                .build();
+    }
+
+    @Test
+    @DisplayName("should_return_book_by_id_with_its_etag")
+    public void getById() {
+        BookResponse book = BookCreator.bookJavaPersisted();
+        book.setVersion(3);
+        BDDMockito.when(reactiveBookService.getBookById(2L)).thenReturn(Mono.just(book));
+
+        webTestClient.get().uri(BOOK_API + "/{bookId}", 2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Effective Java")
+                .jsonPath("$.version").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("should_return_the_servlet_not_found_body_for_an_unknown_book")
+    public void getUnknownBook() {
+        BDDMockito.when(reactiveBookService.getBookById(99L))
+                .thenReturn(Mono.error(new ObjectNotFoundException("Book not found")));
+
+        webTestClient.get().uri(BOOK_API + "/{bookId}", 99)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Object Not Found Exception. Check documentation")
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.errorMessage").isEqualTo("Book not found")
+                .jsonPath("$.developerMessage").isEqualTo(ObjectNotFoundException.class.getName());
+    }
+
+    @Test
+    @DisplayName("should_reject_a_non_numeric_book_id_with_bad_request")
+    public void getByInvalidId() {
+        webTestClient.get().uri(BOOK_API + "/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Parameter bookId must be a number");
+    }
+
+    @Test
+    @DisplayName("should_return_the_first_ten_books_by_id_as_a_page_by_default")
+    public void listWithDefaults() {
+        BDDMockito.when(reactiveBookService.listBooks(any(), any()))
+                .thenAnswer(invocation -> Mono.just(new PageImpl<>(List.of(BookCreator.bookJavaPersisted()),
+                        invocation.getArgument(1), 1)));
+
+        webTestClient.get().uri(BOOK_API)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .expectBody()
+                .jsonPath("$.content[0].title").isEqualTo("Effective Java")
+                .jsonPath("$.totalElements").isEqualTo(1);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        Mockito.verify(reactiveBookService).listBooks(eq(null), pageable.capture());
+        assertThat(pageable.getValue()).isEqualTo(PageRequest.of(0, 10, Sort.by("bookId")));
+        Mockito.verify(reactiveBookService, Mockito.never()).streamBooks(any(), any());
+    }
+
+    @Test
+    @DisplayName("should_page_the_listing_with_the_given_parameters_up_to_the_maximum_size")
+    public void listPaged() {
+        BDDMockito.when(reactiveBookService.listBooks(eq("Joshua"), any()))
+                .thenAnswer(invocation -> Mono.just(new PageImpl<>(List.of(BookCreator.bookJavaPersisted()),
+                        invocation.getArgument(1), 101)));
+
+        webTestClient.get().uri(BOOK_API + "?author=Joshua&page=1&size=500&sort=title,desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].title").isEqualTo("Effective Java");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        Mockito.verify(reactiveBookService).listBooks(eq("Joshua"), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(100);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "title"));
+    }
+
+    @Test
+    @DisplayName("should_stream_the_whole_listing_when_ndjson_is_accepted")
+    public void streamNdjson() {
+        BDDMockito.when(reactiveBookService.streamBooks(null, Sort.by("bookId")))
+                .thenReturn(Flux.just(BookCreator.bookGolangPersisted(), BookCreator.bookJavaPersisted()));
+
+        webTestClient.get().uri(BOOK_API)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BookResponse.class)
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should_reject_the_servlet_only_listing_parameters")
+    public void listWithUnsupportedParameters() {
+        webTestClient.get().uri(BOOK_API + "?ids=1,2")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Parameter ids is not supported");
+
+        webTestClient.get().uri(BOOK_API + "?fields=title")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Parameter fields is not supported");
+
+        Mockito.verifyNoInteractions(reactiveBookService);
+    }
+
+    @Test
+    @DisplayName("should_reject_paging_a_stream")
+    public void streamPaged() {
+        webTestClient.get().uri(BOOK_API + "?size=10")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Parameter size is not supported");
+
+        Mockito.verifyNoInteractions(reactiveBookService);
+    }
+
+    @Test
+    @DisplayName("should_reject_sorting_by_an_unknown_property")
+    public void listWithUnknownSort() {
+        webTestClient.get().uri(BOOK_API + "?sort=password")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .value(containsString("Cannot sort books by password"));
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.corcino.library.unit.datasource;
+
+import com.corcino.library.datasource.ConnectionUsageFilter;
+import com.corcino.library.datasource.InstrumentedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionUsageFilterTest {
+
+    private EmbeddedDatabase database;
+    private InstrumentedDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionUsageFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).build();
+        dataSource = new InstrumentedDataSource(database);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ConnectionUsageFilter(meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("should_record_connection_checkouts_per_request")
+    public void recordCheckouts() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/book/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/book/{bookId}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                checkout();
+                checkout();
+            }
+        }));
+
+        DistributionSummary acquisitions = meterRegistry.get(ConnectionUsageFilter.ACQUISITIONS)
+                .tag("uri", "/api/v1/book/{bookId}")
+                .summary();
+        Timer hold = meterRegistry.get(ConnectionUsageFilter.HOLD_TIME).tag("method", "PUT").timer();
+
+        assertThat(acquisitions.count()).isEqualTo(1);
+        assertThat(acquisitions.totalAmount()).isEqualTo(2);
+        assertThat(hold.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    @DisplayName("should_not_track_connections_outside_a_request")
+    public void ignoreOutsideRequest() {
+        checkout();
+
+        assertThat(meterRegistry.find(ConnectionUsageFilter.ACQUISITIONS).summary()).isNull();
+    }
+
+    @Test
+    @DisplayName("should_close_the_wrapped_pool_on_close")
+    public void closeWrappedPool() throws Exception {
+        HikariDataSource pool = Mockito.mock(HikariDataSource.class);
+
+        new InstrumentedDataSource(pool).close();
+
+        Mockito.verify(pool).close();
+    }
+
+    private void checkout() {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("select 1");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.corcino.library.unit.error;
+
+import com.corcino.library.error.ErrorTemplate;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ErrorTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("should_render_the_same_json_as_standard_error")
+    public void renderStandardError() throws Exception {
+        ErrorTemplate template = ErrorTemplate.of(HttpStatus.NOT_FOUND, "Object Not Found Exception. Check documentation",
+                ObjectNotFoundException.class);
+
+        ResponseEntity<byte[]> response = template.render("Book \"42\" not found");
+        JsonNode error = objectMapper.readTree(response.getBody());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(error.fieldNames()).toIterable()
+                .containsExactly("title", "status", "errorMessage", "developerMessage", "dateTime");
+        assertThat(error.get("title").asText()).isEqualTo("Object Not Found Exception. Check documentation");
+        assertThat(error.get("status").asInt()).isEqualTo(404);
+        assertThat(error.get("errorMessage").asText()).isEqualTo("Book \"42\" not found");
+        assertThat(error.get("developerMessage").asText()).isEqualTo(ObjectNotFoundException.class.getName());
+        assertThat(error.get("dateTime").asText()).matches("\\d{2}-\\d{2}-\\d{4} \\d{2}:\\d{2}:\\d{2}");
+    }
+
+    @Test
+    @DisplayName("should_use_the_message_as_title_and_reuse_the_last_response")
+    public void reuseLastResponse() throws Exception {
+        ErrorTemplate template = ErrorTemplate.titledByMessage(HttpStatus.CONFLICT, DataIntegrityViolationException.class);
+
+        ResponseEntity<byte[]> first = template.render("Isbn already used");
+        ResponseEntity<byte[]> repeated = template.render("Isbn already used");
+        ResponseEntity<byte[]> other = template.render("Title already used");
+
+        assertThat(objectMapper.readTree(first.getBody()).get("title").asText()).isEqualTo("Isbn already used");
+        assertThat(objectMapper.readTree(other.getBody()).get("title").asText()).isEqualTo("Title already used");
+        // only re-rendered when the second changed in between
+        if (dateTime(first).equals(dateTime(repeated))) {
+            assertThat(repeated).isSameAs(first);
+        }
+    }
+
+    private String dateTime(ResponseEntity<byte[]> response) throws Exception {
+        return objectMapper.readTree(response.getBody()).get("dateTime").asText();
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.corcino.library.unit.feed;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.controller.BookController;
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.feed.BookChangeFeed;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.model.Book;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class BookChangeFeedTest {
+
+    private static final String CHANGES_API = "/api/v1/book/changes";
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private LibraryProperties libraryProperties;
+    private BookChangeFeed bookChangeFeed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        libraryProperties = new LibraryProperties();
+        libraryProperties.getChangeFeed().setHistory(5);
+        libraryProperties.getChangeFeed().setSubscriberBuffer(3);
+        libraryProperties.getChangeFeed().setDispatchThreads(1);
+        bookChangeFeed = new BookChangeFeed(Mappers.getMapper(BookMapper.class), libraryProperties);
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookController(null, null, null, bookChangeFeed)).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bookChangeFeed.shutdown();
+    }
+
+    @Test
+    @DisplayName("should_replay_the_retained_changes_after_the_given_sequence")
+    public void replay() throws Exception {
+        publishDeletes(3);
+
+        MvcResult result = subscribe("?since=1");
+
+        String events = awaitContent(result, "id:3");
+        assertThat(eventIds(events)).containsExactly(2L, 3L);
+        assertThat(events).contains("event:DELETED");
+    }
+
+    @Test
+    @DisplayName("should_resume_from_last_event_id")
+    public void resumeFromLastEventId() throws Exception {
+        publishDeletes(3);
+
+        MvcResult result = mockMvc.perform(get(CHANGES_API).header("Last-Event-ID", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(eventIds(awaitContent(result, "id:3"))).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("should_send_a_reset_when_the_sequence_is_no_longer_retained")
+    public void resetWhenSequenceIsGone() throws Exception {
+        publishDeletes(8);
+
+        String events = awaitContent(subscribe("?since=1"), "event:reset");
+
+        assertThat(events).contains("id:8").contains("data:8");
+        assertThat(events).doesNotContain("event:DELETED");
+    }
+
+    @Test
+    @DisplayName("should_send_a_reset_for_a_sequence_from_the_future")
+    public void resetForUnknownSequence() throws Exception {
+        publishDeletes(2);
+
+        String events = awaitContent(subscribe("?since=99"), "event:reset");
+
+        assertThat(events).contains("data:2");
+    }
+
+    @Test
+    @DisplayName("should_deliver_live_changes_in_sequence_order")
+    public void ordering() throws Exception {
+        libraryProperties.getChangeFeed().setSubscriberBuffer(100);
+        MvcResult result = subscribe("");
+
+        for (long bookId = 1; bookId <= 50; bookId++) {
+            bookChangeFeed.onBookChanged(BookChangedEvent.deleted(bookId));
+            if (bookId % 10 == 0) {
+                awaitContent(result, "id:" + bookId);
+            }
+        }
+
+        assertThat(eventIds(awaitContent(result, "id:50")))
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 50).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("should_send_an_imported_chunk_as_a_single_change")
+    public void importedChunk() throws Exception {
+        MvcResult result = subscribe("");
+
+        bookChangeFeed.onBookChanged(BookChangedEvent.imported(
+                List.of(book(1L, "Refactoring"), book(2L, "Clean Code"))));
+
+        String events = awaitContent(result, "event:IMPORTED");
+        assertThat(eventIds(events)).containsExactly(1L);
+        assertThat(events).contains("Refactoring").contains("Clean Code");
+    }
+
+    @Test
+    @DisplayName("should_disconnect_a_subscriber_that_falls_behind_its_buffer")
+    public void overflowDisconnects() {
+        SseEmitter emitter = bookChangeFeed.subscribe(null);
+        assertThat(bookChangeFeed.subscriberCount()).isEqualTo(1);
+
+        // sends synchronize on the emitter, so holding its monitor stalls the dispatcher after one change at most
+        synchronized (emitter) {
+            publishDeletes(libraryProperties.getChangeFeed().getSubscriberBuffer() + 3);
+            assertThat(bookChangeFeed.subscriberCount()).isZero();
+        }
+        assertThat(bookChangeFeed.currentSequence()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("should_refuse_subscribers_beyond_the_cap_until_one_leaves")
+    public void capSubscribers() {
+        libraryProperties.getChangeFeed().setMaxSubscribers(2);
+        SseEmitter first = bookChangeFeed.subscribe(null);
+        bookChangeFeed.subscribe(null);
+
+        assertThatThrownBy(() -> bookChangeFeed.subscribe(null)).isInstanceOf(ServiceUnavailableException.class);
+
+        // an emitter without a handler cannot report its completion, so the overflow path stands in for a client leaving
+        synchronized (first) {
+            publishDeletes(libraryProperties.getChangeFeed().getSubscriberBuffer() + 3);
+        }
+        assertThat(bookChangeFeed.subscriberCount()).isLessThan(2);
+        assertThat(bookChangeFeed.subscribe(null)).isNotNull();
+    }
+
+    private MvcResult subscribe(String query) throws Exception {
+        return mockMvc.perform(get(CHANGES_API + query))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void publishDeletes(int count) {
+        for (long bookId = 1; bookId <= count; bookId++) {
+            bookChangeFeed.onBookChanged(BookChangedEvent.deleted(bookId));
+        }
+    }
+
+    private Book book(Long bookId, String title) {
+        Book book = new Book();
+        book.setBookId(bookId);
+        book.setTitle(title);
+        return book;
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String content = result.getResponse().getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Change feed never sent " + expected + ": " + result.getResponse().getContentAsString());
+    }
+
+    private List<Long> eventIds(String events) {
+        Matcher matcher = EVENT_ID.matcher(events);
+        List<Long> ids = new ArrayList<>();
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+
+}
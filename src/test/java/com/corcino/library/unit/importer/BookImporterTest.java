@@ -0,0 +1,145 @@
+package com.corcino.library.unit.importer;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookImportStatus;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.importer.BookImportJob;
+import com.corcino.library.importer.BookImporter;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.model.Book;
+import com.corcino.library.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validation;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookImporterTest {
+
+    private BookImporter bookImporter;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setUp() {
+        LibraryProperties libraryProperties = new LibraryProperties();
+        libraryProperties.getImporter().setChunkSize(2);
+        libraryProperties.getImporter().setWorkerThreads(1);
+
+        bookImporter = new BookImporter(bookRepository, Mappers.getMapper(BookMapper.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new TransactionTemplate(transactionManager), eventPublisher, libraryProperties);
+
+        Mockito.when(bookRepository.findAllIsbns()).thenReturn(List.of("0134685997"));
+        Mockito.when(bookRepository.findAllTitles()).thenReturn(List.of());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bookImporter.shutdown();
+    }
+
+    @Test
+    @DisplayName("should_import_csv_reporting_invalid_and_duplicated_rows")
+    public void importCsv() throws Exception {
+        String csv = "title,author,isbn\n" +
+                "Effective Java,Joshua Bloch,0134685997\n" +
+                "Clean Code,,0132350882\n" +
+                "The Go Programming Language,Alan Donovan,0134190440\n" +
+                "Refactoring,Martin Fowler,0134757599\n" +
+                "Refactoring,Martin Fowler,0201485672\n";
+
+        BookImportStatus status = awaitImport(csv, BookFileFormat.CSV);
+
+        assertThat(status.getState()).isEqualTo(BookImportJob.State.COMPLETED);
+        assertThat(status.getProcessed()).isEqualTo(5);
+        assertThat(status.getCreated()).isEqualTo(2);
+        assertThat(status.getDuplicates()).isEqualTo(2);
+        assertThat(status.getInvalid()).isEqualTo(1);
+        assertThat(status.getErrors()).extracting("row").containsExactly(1L, 2L, 5L);
+        assertThat(status.getErrors().get(1).getMessage()).isEqualTo("Author is mandatory");
+
+        Mockito.verify(bookRepository, Mockito.times(1)).saveAll(anyList());
+        ArgumentCaptor<BookChangedEvent> event = ArgumentCaptor.forClass(BookChangedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(BookChangedEvent.Type.IMPORTED);
+        assertThat(event.getValue().getBooks()).extracting(Book::getTitle)
+                .containsExactly("The Go Programming Language", "Refactoring");
+    }
+
+    @Test
+    @DisplayName("should_import_ndjson_and_reject_malformed_lines")
+    public void importNdjson() throws Exception {
+        String ndjson = "{\"title\":\"Clean Code\",\"author\":\"Robert Martin\",\"isbn\":\"0132350882\"}\n" +
+                "\n" +
+                "{\"title\":\"Broken\"\n";
+
+        BookImportStatus status = awaitImport(ndjson, BookFileFormat.NDJSON);
+
+        assertThat(status.getState()).isEqualTo(BookImportJob.State.COMPLETED);
+        assertThat(status.getCreated()).isEqualTo(1);
+        assertThat(status.getInvalid()).isEqualTo(1);
+        assertThat(status.getErrors().get(0).getRow()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should_accept_rows_again_after_their_chunk_rolled_back")
+    public void importAfterRolledBackChunk() throws Exception {
+        Mockito.when(bookRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        String csv = "title,author,isbn\n" +
+                "Clean Code,Robert Martin,0132350882\n" +
+                "Refactoring,Martin Fowler,0134757599\n" +
+                "Clean Code,Robert Martin,0132350882\n" +
+                "Refactoring,Martin Fowler,0134757599\n";
+
+        BookImportStatus status = awaitImport(csv, BookFileFormat.CSV);
+
+        assertThat(status.getState()).isEqualTo(BookImportJob.State.COMPLETED);
+        assertThat(status.getFailed()).isEqualTo(2);
+        assertThat(status.getDuplicates()).isZero();
+        assertThat(status.getCreated()).isEqualTo(2);
+    }
+
+    private BookImportStatus awaitImport(String content, BookFileFormat format) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books." + format.getExtension(), format.getMediaType(),
+                content.getBytes(StandardCharsets.UTF_8));
+        BookImportJob job = bookImporter.submit(file, format);
+
+        for (int attempt = 0; attempt < 100 && !job.isFinished(); attempt++) {
+            Thread.sleep(50);
+        }
+        return bookImporter.getJob(job.getJobId()).toStatus();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.corcino.library.unit.limit;
+
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import com.corcino.library.limit.ConcurrencyLimitInterceptor;
+import com.corcino.library.limit.ConcurrencyLimiter;
+import com.corcino.library.limit.GradientLimit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("should_reject_requests_beyond_the_limit_until_a_permit_is_released")
+    public void rejectBeyondLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("read", new GradientLimit(2, 1, 2, 0.2, 1.5));
+
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(limiter.getRejected()).isEqualTo(1);
+
+        first.onIgnore();
+
+        assertThat(limiter.getInflight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("should_grow_the_limit_while_latency_is_stable_and_shrink_it_when_latency_rises")
+    public void followLatencyGradient() {
+        GradientLimit limit = new GradientLimit(20, 1, 100, 0.2, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+        int grown = limit.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, limit.getLimit());
+        }
+
+        assertThat(grown).isGreaterThan(20);
+        assertThat(limit.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    @DisplayName("should_keep_the_limit_when_most_of_it_is_unused")
+    public void ignoreApplicationLimitedSamples() {
+        GradientLimit limit = new GradientLimit(20, 1, 100, 0.2, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(i < 50 ? FAST : SLOW, 1);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("should_back_off_on_dropped_requests_down_to_the_minimum")
+    public void backOffOnDrops() {
+        GradientLimit limit = new GradientLimit(20, 5, 100, 0.2, 1.5);
+
+        limit.onDropped();
+        assertThat(limit.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onDropped();
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("should_shed_writes_over_their_limit_without_affecting_reads")
+    public void separateReadAndWriteLimits() {
+        ConcurrencyLimiter reads = new ConcurrencyLimiter("read", new GradientLimit(2, 1, 2, 0.2, 1.5));
+        ConcurrencyLimiter writes = new ConcurrencyLimiter("write", new GradientLimit(1, 1, 1, 0.2, 1.5));
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(reads, writes, Duration.ofSeconds(2));
+
+        MockHttpServletRequest write = new MockHttpServletRequest("POST", "/api/v1/book");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(write, response, new Object());
+
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest("PUT", "/api/v1/book/1"),
+                new MockHttpServletResponse(), new Object()))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(2));
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/v1/book/1"),
+                new MockHttpServletResponse(), new Object())).isTrue();
+
+        interceptor.afterCompletion(write, response, new Object(), null);
+
+        assertThat(writes.getInflight()).isZero();
+        assertThat(reads.getInflight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should_not_let_open_change_streams_starve_other_reads")
+    public void openStreamsDoNotStarveReads() {
+        GradientLimit limit = new GradientLimit(4, 4, 4, 0.2, 1.5);
+        ConcurrencyLimiter reads = new ConcurrencyLimiter("read", limit);
+        ConcurrencyLimiter writes = new ConcurrencyLimiter("write", new GradientLimit(1, 1, 1, 0.2, 1.5));
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(reads, writes, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/api/v1/book/changes");
+            stream.setAsyncSupported(true);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertThat(interceptor.preHandle(stream, response, new Object())).isTrue();
+            stream.startAsync();
+            interceptor.afterConcurrentHandlingStarted(stream, response, new Object());
+        }
+
+        assertThat(reads.getInflight()).isZero();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/v1/book/1"),
+                new MockHttpServletResponse(), new Object())).isTrue();
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+}
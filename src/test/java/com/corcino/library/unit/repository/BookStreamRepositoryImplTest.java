@@ -0,0 +1,64 @@
+package com.corcino.library.unit.repository;
+
+import com.corcino.library.dto.BookSearchEntry;
+import com.corcino.library.repository.BookStreamRepositoryImpl;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQL8Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class BookStreamRepositoryImplTest {
+
+    @Test
+    @DisplayName("should_stream_row_by_row_on_mysql")
+    public void mysqlStreamingFetchSize() {
+        TypedQuery<BookSearchEntry> query = streamForSearch(new MySQL8Dialect());
+
+        Mockito.verify(query).setHint(HINT_FETCH_SIZE, Integer.MIN_VALUE);
+        Mockito.verify(query).setHint(HINT_READONLY, true);
+    }
+
+    @Test
+    @DisplayName("should_use_a_positive_fetch_size_on_other_databases")
+    public void positiveFetchSizeElsewhere() {
+        TypedQuery<BookSearchEntry> query = streamForSearch(new H2Dialect());
+
+        Mockito.verify(query).setHint(HINT_FETCH_SIZE, 1000);
+        Mockito.verify(query, Mockito.never()).setHint(HINT_FETCH_SIZE, Integer.MIN_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedQuery<BookSearchEntry> streamForSearch(Dialect dialect) {
+        SessionFactoryImplementor sessionFactory = Mockito.mock(SessionFactoryImplementor.class, Answers.RETURNS_DEEP_STUBS);
+        Mockito.when(sessionFactory.getJdbcServices().getDialect()).thenReturn(dialect);
+        EntityManagerFactory entityManagerFactory = Mockito.mock(EntityManagerFactory.class);
+        Mockito.when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+
+        TypedQuery<BookSearchEntry> query = Mockito.mock(TypedQuery.class, Answers.RETURNS_SELF);
+        Mockito.when(query.getResultStream()).thenReturn(Stream.empty());
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        Mockito.when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        Mockito.when(entityManager.createQuery(anyString(), eq(BookSearchEntry.class))).thenReturn(query);
+
+        BookStreamRepositoryImpl repository = new BookStreamRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        repository.streamAllForSearch().close();
+        return query;
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.corcino.library.unit.search;
+
+import com.corcino.library.dto.BookSearchEntry;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.model.Book;
+import com.corcino.library.repository.BookRepository;
+import com.corcino.library.search.BookSearchIndex;
+import com.corcino.library.search.SearchField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookSearchIndexTest {
+
+    private BookRepository bookRepository;
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        bookRepository = Mockito.mock(BookRepository.class);
+        Mockito.when(bookRepository.streamAllForSearch()).thenAnswer(invocation -> Stream.of(
+                new BookSearchEntry(1L, "The Go Programming Language", "Alan A.A. Donovan"),
+                new BookSearchEntry(2L, "Effective Java", "Joshua Bloch"),
+                new BookSearchEntry(3L, "Java Concurrency in Practice", "Brian Goetz")));
+
+        bookSearchIndex = new BookSearchIndex(bookRepository);
+        bookSearchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("should_match_whole_tokens_case_insensitively")
+    public void matchToken() {
+        assertThat(bookSearchIndex.search("JAVA", SearchField.TITLE)).containsExactly(2L, 3L);
+        assertThat(bookSearchIndex.search("bloch", SearchField.AUTHOR)).containsExactly(2L);
+        assertThat(bookSearchIndex.search("bloch", SearchField.TITLE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should_match_prefix_tokens")
+    public void matchPrefix() {
+        assertThat(bookSearchIndex.search("jo*", SearchField.ALL)).containsExactly(2L);
+        assertThat(bookSearchIndex.search("prog*", SearchField.ALL)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("should_intersect_every_token_of_the_query")
+    public void intersectTokens() {
+        assertThat(bookSearchIndex.search("java goetz", SearchField.ALL)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("should_follow_updates_and_deletes")
+    public void followWrites() {
+        bookSearchIndex.onBookChanged(BookChangedEvent.updated(book(2L, "Effective Kotlin", "Marcin Moskala")));
+        bookSearchIndex.onBookChanged(BookChangedEvent.deleted(3L));
+
+        assertThat(bookSearchIndex.search("java", SearchField.ALL)).isEmpty();
+        assertThat(bookSearchIndex.search("kotlin", SearchField.ALL)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("should_index_every_book_of_an_imported_chunk")
+    public void followImports() {
+        bookSearchIndex.onBookChanged(BookChangedEvent.imported(List.of(
+                book(4L, "Refactoring", "Martin Fowler"),
+                book(5L, "Java Performance", "Scott Oaks"))));
+
+        assertThat(bookSearchIndex.search("fowler", SearchField.AUTHOR)).containsExactly(4L);
+        assertThat(bookSearchIndex.search("java", SearchField.TITLE)).containsExactly(2L, 3L, 5L);
+    }
+
+    @Test
+    @DisplayName("should_replay_writes_made_while_the_index_was_rebuilt")
+    public void replayWritesDuringRebuild() {
+        Mockito.when(bookRepository.streamAllForSearch()).thenAnswer(invocation -> {
+            // committed after the rows below were read
+            bookSearchIndex.onBookChanged(BookChangedEvent.updated(book(2L, "Effective Kotlin", "Marcin Moskala")));
+            bookSearchIndex.onBookChanged(BookChangedEvent.created(book(4L, "Refactoring", "Martin Fowler")));
+            return Stream.of(
+                    new BookSearchEntry(1L, "The Go Programming Language", "Alan A.A. Donovan"),
+                    new BookSearchEntry(2L, "Effective Java", "Joshua Bloch"));
+        });
+
+        bookSearchIndex.rebuild();
+
+        assertThat(bookSearchIndex.search("java", SearchField.ALL)).isEmpty();
+        assertThat(bookSearchIndex.search("kotlin", SearchField.ALL)).containsExactly(2L);
+        assertThat(bookSearchIndex.search("fowler", SearchField.AUTHOR)).containsExactly(4L);
+        assertThat(bookSearchIndex.search("go", SearchField.TITLE)).containsExactly(1L);
+    }
+
+    private Book book(Long bookId, String title, String author) {
+        Book book = new Book();
+        book.setBookId(bookId);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.corcino.library.unit.service;
+
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.dto.BookFileFormat;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.exception.ServiceUnavailableException;
+import com.corcino.library.repository.BookRepository;
+import com.corcino.library.service.BookExportService;
+import com.corcino.library.util.BookCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookExportServiceTest {
+
+    private BookExportService bookExportService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    public void setUp() {
+        LibraryProperties libraryProperties = new LibraryProperties();
+        libraryProperties.getExport().setMaxConcurrent(1);
+        bookExportService = new BookExportService(bookRepository, new ObjectMapper(), libraryProperties);
+    }
+
+    @Test
+    @DisplayName("should_export_one_json_object_per_line")
+    public void exportNdjson() throws Exception {
+        Mockito.when(bookRepository.streamAllForExport())
+                .thenReturn(Stream.of(BookCreator.bookJavaPersisted(), BookCreator.bookGolangPersisted()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long rows = bookExportService.exportBooks(BookFileFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"bookId\":2,").doesNotContain("version");
+    }
+
+    @Test
+    @DisplayName("should_export_csv_with_header_and_quoted_values")
+    public void exportCsv() throws Exception {
+        BookResponse book = BookResponse.builder()
+                .bookId(3L)
+                .title("Refactoring, 2nd \"Edition\"")
+                .author("Martin Fowler")
+                .isbn("978-0134757599")
+                .build();
+        Mockito.when(bookRepository.streamAllForExport()).thenReturn(Stream.of(book));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookExportService.exportBooks(BookFileFormat.CSV, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "bookId,title,author,isbn\n" +
+                "3,\"Refactoring, 2nd \"\"Edition\"\"\",Martin Fowler,978-0134757599\n");
+    }
+
+    @Test
+    @DisplayName("should_refuse_exports_beyond_the_slots_until_one_is_released")
+    public void limitConcurrentExports() {
+        Runnable releaseSlot = bookExportService.reserveSlot();
+
+        assertThatThrownBy(bookExportService::reserveSlot).isInstanceOf(ServiceUnavailableException.class);
+
+        releaseSlot.run();
+        releaseSlot.run();
+        Runnable nextSlot = bookExportService.reserveSlot();
+        assertThatThrownBy(bookExportService::reserveSlot).isInstanceOf(ServiceUnavailableException.class);
+        nextSlot.run();
+    }
+
+}
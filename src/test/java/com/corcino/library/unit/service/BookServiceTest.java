@@ -1,30 +1,64 @@
 package com.corcino.library.unit.service;
 
+import com.corcino.library.cache.RequestCoalescer;
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.config.LibraryProperties;
+import com.corcino.library.datasource.ReplicaRoutingDataSource;
+import com.corcino.library.dto.BookBatchItemStatus;
+import com.corcino.library.dto.BookBatchResponse;
+import com.corcino.library.dto.BookBulkDeleteResponse;
+import com.corcino.library.dto.BookCursor;
+import com.corcino.library.dto.BookCursorPage;
+import com.corcino.library.dto.BookMultiGetResponse;
 import com.corcino.library.dto.BookRequest;
 import com.corcino.library.dto.BookResponse;
 import com.corcino.library.dto.UpdateBookRequest;
+import com.corcino.library.error.exception.BadRequestException;
 import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.error.exception.PreconditionFailedException;
+import com.corcino.library.event.BookChangedEvent;
+import com.corcino.library.mapper.BookMapper;
 import com.corcino.library.model.Book;
 import com.corcino.library.repository.BookRepository;
+import com.corcino.library.search.BookSearchIndex;
+import com.corcino.library.search.SearchField;
 import com.corcino.library.service.BookService;
 import com.corcino.library.util.BookCreator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -36,7 +70,7 @@ import static org.mockito.ArgumentMatchers.*;
 @ActiveProfiles("test")
 public class BookServiceTest {
 
-    private ModelMapper mapper;
+    private BookMapper mapper;
 
     @InjectMocks
     private BookService bookService;
@@ -44,10 +78,28 @@ public class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
     @BeforeEach
     public void setUp() {
-        mapper = new ModelMapper();
-        bookService.setModelMapper(mapper);
+        mapper = Mappers.getMapper(BookMapper.class);
+        bookService.setBookMapper(mapper);
+        bookService.setValidator(Validation.buildDefaultValidatorFactory().getValidator());
+        bookService.setLibraryProperties(new LibraryProperties());
+        bookService.setCacheManager(new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE));
+        bookService.setRequestCoalescer(new RequestCoalescer(new SimpleMeterRegistry()));
+        bookService.setTransactionManager(transactionManager);
+        bookService.setEntityManager(entityManager);
     }
 
     @Test
@@ -91,6 +143,81 @@ public class BookServiceTest {
         assertThat(products.getTotalElements()).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("should_select_only_requested_fields")
+    public void listBookFields() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("bookId", 2L);
+        row.put("title", "Effective Java");
+        PageImpl<Map<String, Object>> page = new PageImpl<>(List.of(row), buildPageable(), 1);
+
+        Mockito.when(bookRepository.findFieldsByAuthorContaining(Set.of("bookId", "title"), null, buildPageable())).thenReturn(page);
+
+        Page<Map<String, Object>> books = bookService.listBookFields(null, "bookId, title", buildPageable());
+
+        assertThat(books.getContent()).containsExactly(row);
+        Mockito.verify(bookRepository, Mockito.never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("should_reject_unknown_fields")
+    public void listBookUnknownFields() {
+        Throwable exception = catchThrowable(() -> bookService.listBookFields(null, "bookId,version", buildPageable()));
+
+        assertThat(exception)
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageStartingWith("Unknown field version");
+    }
+
+    @Test
+    @DisplayName("should_return_books_matching_search_index")
+    public void searchBooks() {
+        Mockito.when(bookSearchIndex.search("bloch", SearchField.AUTHOR)).thenReturn(new TreeSet<>(List.of(2L)));
+        Mockito.when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of(toModel(BookCreator.bookJavaPersisted())));
+
+        Page<BookResponse> books = bookService.searchBooks("bloch", "author", buildPageable());
+
+        assertThat(books.getTotalElements()).isEqualTo(1);
+        assertTrue(books.getContent().contains(BookCreator.bookJavaPersisted()));
+        Mockito.verify(bookRepository, Mockito.never()).findByAuthorContaining(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should_return_first_slice_with_continuation_cursor")
+    public void listBooksByCursorFirstSlice() {
+        SliceImpl<Book> slice = new SliceImpl<>(List.of(toModel(BookCreator.bookGolangPersisted())), PageRequest.of(0, 1), true);
+
+        Mockito.when(bookRepository.findAllBy(any(Pageable.class))).thenReturn(slice);
+        BookCursorPage books = bookService.listBooksByCursor(null, "bookId", 1);
+
+        assertThat(books.getNumberOfElements()).isEqualTo(1);
+        assertTrue(books.isHasNext());
+        assertThat(BookCursor.decode(books.getNextCursor()).getLastValue()).isEqualTo("1");
+        Mockito.verify(bookRepository, Mockito.never()).count();
+    }
+
+    @Test
+    @DisplayName("should_seek_after_cursor_without_offset")
+    public void listBooksByCursorNextSlice() {
+        SliceImpl<Book> slice = new SliceImpl<>(List.of(toModel(BookCreator.bookJavaPersisted())), PageRequest.of(0, 1), false);
+        String cursor = new BookCursor(BookCursor.SortKey.BOOK_ID, "1").encode();
+
+        Mockito.when(bookRepository.findByBookIdGreaterThan(eq(1L), any(Pageable.class))).thenReturn(slice);
+        BookCursorPage books = bookService.listBooksByCursor(cursor, "bookId", 1);
+
+        assertTrue(books.getContent().contains(BookCreator.bookJavaPersisted()));
+        assertFalse(books.isHasNext());
+        assertThat(books.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("should_reject_malformed_cursor")
+    public void listBooksByInvalidCursor() {
+        Throwable exception = catchThrowable(() -> bookService.listBooksByCursor("@@@", "bookId", 1));
+
+        assertThat(exception).isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     @DisplayName("should_return_book_find_by_id")
     public void getBookById() {
@@ -101,6 +228,65 @@ public class BookServiceTest {
         assertThat(book.getTitle()).isEqualTo("The Go Programming Language");
     }
 
+    @Test
+    @DisplayName("should_not_coalesce_a_read_pinned_to_primary_with_a_replica_read")
+    public void getBookByIdPinnedToPrimary() throws Exception {
+        CountDownLatch loads = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookRepository.findById(1L)).thenAnswer(invocation -> {
+            loads.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(toModel(BookCreator.bookGolangPersisted()));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<BookResponse> replicaRead = executor.submit(() -> bookService.getBookById(1L));
+            Future<BookResponse> pinnedRead = executor.submit(() -> {
+                ReplicaRoutingDataSource.pinToPrimary();
+                try {
+                    return bookService.getBookById(1L);
+                } finally {
+                    ReplicaRoutingDataSource.unpin();
+                }
+            });
+
+            assertTrue(loads.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            assertThat(replicaRead.get(5, TimeUnit.SECONDS).getBookId()).isEqualTo(1L);
+            assertThat(pinnedRead.get(5, TimeUnit.SECONDS).getBookId()).isEqualTo(1L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("should_resolve_many_ids_with_one_query_reporting_missing")
+    public void getBooksByIds() {
+        Mockito.when(bookRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(toModel(BookCreator.bookGolangPersisted()), toModel(BookCreator.bookJavaPersisted())));
+
+        BookMultiGetResponse response = bookService.getBooksByIds(Arrays.asList(1L, 2L, 3L, 1L));
+
+        assertThat(response.getBooks()).containsExactly(BookCreator.bookGolangPersisted(), BookCreator.bookJavaPersisted());
+        assertThat(response.getMissing()).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("should_serve_cached_books_on_multi_get")
+    public void getBooksByIdsFromCache() {
+        Mockito.when(bookRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(toModel(BookCreator.bookGolangPersisted()), toModel(BookCreator.bookJavaPersisted())));
+        bookService.getBooksByIds(List.of(1L, 2L));
+
+        BookMultiGetResponse response = bookService.getBooksByIds(List.of(2L, 1L));
+
+        assertThat(response.getBooks()).containsExactly(BookCreator.bookJavaPersisted(), BookCreator.bookGolangPersisted());
+        Mockito.verify(bookRepository, Mockito.times(1)).findAllById(anyIterable());
+    }
+
     @Test
     @DisplayName("should_return_not_found_search_book_by_id_nonexistent")
     public void getBookByIdNotFound() {
@@ -116,9 +302,7 @@ public class BookServiceTest {
     @Test
     @DisplayName("should_save_book_successfully")
     public void createBook() throws Exception {
-        Mockito.when(bookRepository.existsByIsbn(anyString())).thenReturn(false);
-        Mockito.when(bookRepository.existsByTitle(anyString())).thenReturn(false);
-        Mockito.when(bookRepository.save(any(Book.class))).thenReturn(toModel(BookCreator.bookJavaPersisted()));
+        Mockito.when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(toModel(BookCreator.bookJavaPersisted()));
 
         BookRequest bookRequest = BookCreator.bookJavaToBeSaved();
         BookResponse response = bookService.createBook(bookRequest);
@@ -126,12 +310,14 @@ public class BookServiceTest {
         assertThat(response).isNotNull();
         assertThat(response.getBookId()).isNotNull();
         assertThat(response.getTitle()).isEqualTo("Effective Java");
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(anyString());
+        Mockito.verify(bookRepository, Mockito.never()).existsByTitle(anyString());
     }
 
     @Test
     @DisplayName("should_not_save_a_book_with_duplicated_isbn")
     public void createBookDuplicatedIsbn() {
-        Mockito.when(bookRepository.existsByIsbn(anyString())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(any(Book.class))).thenThrow(uniqueViolation("UK_BOOK_ISBN"));
 
         BookRequest bookRequest = BookCreator.bookJavaToBeSaved();
         Throwable exception = catchThrowable(() -> bookService.createBook(bookRequest));
@@ -139,14 +325,12 @@ public class BookServiceTest {
         assertThat(exception)
                 .isInstanceOf(DataIntegrityViolationException.class)
                 .hasMessage("Isbn already used");
-
-        Mockito.verify(bookRepository, Mockito.never()).save(toModel(bookRequest));
     }
 
     @Test
     @DisplayName("should_not_save_a_book_with_duplicated_title")
     public void createBookDuplicatedTitle() {
-        Mockito.when(bookRepository.existsByTitle(anyString())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(any(Book.class))).thenThrow(uniqueViolation("UK_BOOK_TITLE"));
 
         BookRequest bookRequest = BookCreator.bookJavaToBeSaved();
         Throwable exception = catchThrowable(() -> bookService.createBook(bookRequest));
@@ -154,15 +338,68 @@ public class BookServiceTest {
         assertThat(exception)
                 .isInstanceOf(DataIntegrityViolationException.class)
                 .hasMessage("Title already used");
+    }
+
+    @Test
+    @DisplayName("should_save_books_in_bulk_reporting_each_item")
+    public void createBooksInBulk() {
+        Mockito.when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(List.of("0134685997"));
+        Mockito.when(bookRepository.findExistingTitles(anyCollection())).thenReturn(Collections.emptyList());
+
+        List<BookRequest> bookRequests = Arrays.asList(
+                BookCreator.bookGolangToBeSaved(),
+                BookCreator.bookJavaToBeSaved(),
+                new BookRequest(),
+                BookCreator.bookGolangToBeSaved());
+
+        BookBatchResponse response = bookService.createBooks(bookRequests);
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getConflicts()).isEqualTo(2);
+        assertThat(response.getInvalid()).isEqualTo(1);
+        assertThat(response.getItems().get(0).getStatus()).isEqualTo(BookBatchItemStatus.CREATED);
+        assertThat(response.getItems().get(1).getMessage()).isEqualTo("Isbn already used");
+        assertThat(response.getItems().get(2).getStatus()).isEqualTo(BookBatchItemStatus.INVALID);
+        assertThat(response.getItems().get(3).getStatus()).isEqualTo(BookBatchItemStatus.CONFLICT);
+
+        Mockito.verify(bookRepository).saveAll(anyList());
+        Mockito.verify(bookRepository).flush();
+        Mockito.verify(entityManager).clear();
+    }
 
-        Mockito.verify(bookRepository, Mockito.never()).save(toModel(bookRequest));
+    @Test
+    @DisplayName("should_report_null_bulk_items_as_invalid")
+    public void createBooksInBulkWithNullItem() {
+        Mockito.when(bookRepository.findExistingIsbns(anyCollection())).thenReturn(Collections.emptyList());
+        Mockito.when(bookRepository.findExistingTitles(anyCollection())).thenReturn(Collections.emptyList());
+
+        BookBatchResponse response = bookService.createBooks(Arrays.asList(BookCreator.bookGolangToBeSaved(), null));
+
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getInvalid()).isEqualTo(1);
+        assertThat(response.getItems().get(1).getMessage()).isEqualTo("Book is mandatory");
+    }
+
+    @Test
+    @DisplayName("should_reject_bulk_request_over_max_size")
+    public void createBooksInBulkOverMaxSize() {
+        LibraryProperties libraryProperties = new LibraryProperties();
+        libraryProperties.getBulk().setMaxSize(1);
+        bookService.setLibraryProperties(libraryProperties);
+
+        List<BookRequest> bookRequests = Arrays.asList(BookCreator.bookGolangToBeSaved(), BookCreator.bookJavaToBeSaved());
+
+        Throwable exception = catchThrowable(() -> bookService.createBooks(bookRequests));
+
+        assertThat(exception).isInstanceOf(BadRequestException.class);
+        Mockito.verify(bookRepository, Mockito.never()).saveAll(anyList());
     }
 
     @Test
     @DisplayName("should_update_book_successfully")
     public void updateBook() throws Exception {
         Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(toModel(BookCreator.bookGolangPersisted())));
-        Mockito.when(bookRepository.save(any())).thenReturn(toModel(BookCreator.bookGolangUpdatedPersisted()));
+        Mockito.when(bookRepository.saveAndFlush(any())).thenReturn(toModel(BookCreator.bookGolangUpdatedPersisted()));
 
         UpdateBookRequest updateBookRequest = BookCreator.bookGolangToUpdate();
 
@@ -174,6 +411,22 @@ public class BookServiceTest {
         assertThat(bookResponse.getTitle()).isEqualTo("The Go Programming Language - Updated");
     }
 
+    @Test
+    @DisplayName("should_keep_the_fields_left_blank_in_the_update")
+    public void updateBookKeepsBlankFields() throws Exception {
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(toModel(BookCreator.bookGolangPersisted())));
+        Mockito.when(bookRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UpdateBookRequest updateBookRequest = BookCreator.bookGolangToUpdate();
+        updateBookRequest.setAuthor(" ");
+
+        BookResponse bookResponse = bookService.updateBook(updateBookRequest, 1L);
+
+        assertThat(bookResponse.getTitle()).isEqualTo("The Go Programming Language - Updated");
+        assertThat(bookResponse.getAuthor()).isEqualTo(BookCreator.bookGolangPersisted().getAuthor());
+        assertThat(bookResponse.getIsbn()).isEqualTo(BookCreator.bookGolangPersisted().getIsbn());
+    }
+
     @Test
     @DisplayName("should_not_update_book_with_title_duplicated")
     public void updateBookTitleDuplicated() {
@@ -219,19 +472,57 @@ public class BookServiceTest {
                 .hasMessage("Book not found");
     }
 
+    @Test
+    @DisplayName("should_patch_book_with_one_conditional_update")
+    public void patchBook() {
+        Mockito.when(bookRepository.patch(eq(1L), eq(3L), eq("The Go Programming Language - Updated"), isNull(), isNull(),
+                any(Instant.class))).thenReturn(1);
+
+        long version = bookService.patchBook(BookCreator.bookGolangToUpdate(), 1L, 3L);
+
+        assertThat(version).isEqualTo(4L);
+        Mockito.verify(bookRepository, Mockito.never()).findById(anyLong());
+        Mockito.verify(bookRepository, Mockito.never()).existsByTitle(anyString());
+    }
+
+    @Test
+    @DisplayName("should_not_patch_book_modified_by_another_request")
+    public void patchBookStaleVersion() {
+        Mockito.when(bookRepository.patch(eq(1L), eq(3L), any(), any(), any(), any())).thenReturn(0);
+        Mockito.when(bookRepository.existsById(1L)).thenReturn(true);
+
+        Throwable exception = catchThrowable(() -> bookService.patchBook(BookCreator.bookGolangToUpdate(), 1L, 3L));
+
+        assertThat(exception).isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    @DisplayName("should_return_not_found_on_patch_with_id_nonexistent")
+    public void patchBookWithBookIdNotFound() {
+        Mockito.when(bookRepository.patch(eq(1L), eq(3L), any(), any(), any(), any())).thenReturn(0);
+        Mockito.when(bookRepository.existsById(1L)).thenReturn(false);
+
+        Throwable exception = catchThrowable(() -> bookService.patchBook(BookCreator.bookGolangToUpdate(), 1L, 3L));
+
+        assertThat(exception)
+                .isInstanceOf(ObjectNotFoundException.class)
+                .hasMessage("Book not found");
+    }
+
     @Test
     @DisplayName("should_delete_book_successfully")
     public void deleteBook() {
-        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(toModel(BookCreator.bookGolangPersisted())));
-        Mockito.doNothing().when(bookRepository).deleteById(eq(1L));
+        Mockito.when(bookRepository.deleteByBookId(1L)).thenReturn(1);
 
         bookService.deleteBook(1L);
+
+        Mockito.verify(bookRepository, Mockito.never()).findById(anyLong());
     }
 
     @Test
     @DisplayName("should_return_not_found_on_delete_with_id_nonexistent")
     public void deleteBookWithBookIdNotFound() {
-        Mockito.when(bookRepository.findById(1L)).thenThrow(new ObjectNotFoundException("Book not found"));
+        Mockito.when(bookRepository.deleteByBookId(1L)).thenReturn(0);
 
         Throwable exception = catchThrowable(() -> bookService.deleteBook(1L));
 
@@ -240,12 +531,49 @@ public class BookServiceTest {
                 .hasMessage("Book not found");
     }
 
+    @Test
+    @DisplayName("should_delete_books_in_bulk_with_one_statement")
+    public void deleteBooksInBulk() {
+        Mockito.when(bookRepository.deleteByBookIdIn(anyCollection())).thenReturn(2);
+
+        BookBulkDeleteResponse response = bookService.deleteBooks(Arrays.asList(1L, 2L, 2L, 3L));
+
+        assertThat(response.getRequested()).isEqualTo(3);
+        assertThat(response.getDeleted()).isEqualTo(2);
+        Mockito.verify(bookRepository).deleteByBookIdIn(Set.of(1L, 2L, 3L));
+
+        ArgumentCaptor<BookChangedEvent> events = ArgumentCaptor.forClass(BookChangedEvent.class);
+        Mockito.verify(eventPublisher, Mockito.times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(BookChangedEvent::getBookId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("should_not_publish_changes_when_no_book_was_deleted")
+    public void deleteBooksInBulkNoneFound() {
+        Mockito.when(bookRepository.deleteByBookIdIn(anyCollection())).thenReturn(0);
+
+        BookBulkDeleteResponse response = bookService.deleteBooks(List.of(7L, 8L));
+
+        assertThat(response.getDeleted()).isZero();
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    private DataIntegrityViolationException uniqueViolation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'x' for key 'book." + constraint + "'"));
+    }
+
     private Book toModel(BookResponse bookResponse) {
-        return mapper.map(bookResponse, Book.class);
+        Book book = new Book();
+        book.setBookId(bookResponse.getBookId());
+        book.setTitle(bookResponse.getTitle());
+        book.setAuthor(bookResponse.getAuthor());
+        book.setIsbn(bookResponse.getIsbn());
+        return book;
     }
 
     private Book toModel(BookRequest bookRequest) {
-        return mapper.map(bookRequest, Book.class);
+        return mapper.toBook(bookRequest);
     }
 
     private Pageable buildPageable() {
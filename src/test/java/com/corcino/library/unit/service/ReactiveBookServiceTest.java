@@ -0,0 +1,118 @@
+package com.corcino.library.unit.service;
+
+import com.corcino.library.config.CacheConfig;
+import com.corcino.library.dto.BookResponse;
+import com.corcino.library.error.exception.ObjectNotFoundException;
+import com.corcino.library.mapper.BookMapper;
+import com.corcino.library.repository.reactive.ReactiveBookRepository;
+import com.corcino.library.service.ReactiveBookService;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ReactiveBookServiceTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2021, 11, 20, 10, 15, 30);
+
+    private DatabaseClient databaseClient;
+    private ConcurrentMapCacheManager cacheManager;
+    private ReactiveBookService reactiveBookService;
+
+    @BeforeEach
+    public void setUp() {
+        R2dbcEntityTemplate template = new R2dbcEntityTemplate(
+                ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        databaseClient = template.getDatabaseClient();
+        databaseClient.sql("create table book (book_id bigint primary key, title varchar(255), author varchar(255), "
+                + "isbn varchar(255), version bigint not null, updated_at timestamp)").then().block();
+        insert(1, "Effective Java", "Joshua Bloch", "0134685997");
+        insert(2, "Java Concurrency in Practice", "Brian Goetz and Joshua Bloch", "0321349601");
+        insert(3, "The Go Programming Language", "Alan A.A. Donovan", "9780134190440");
+
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE);
+        reactiveBookService = new ReactiveBookService(
+                new R2dbcRepositoryFactory(template).getRepository(ReactiveBookRepository.class),
+                Mappers.getMapper(BookMapper.class), cacheManager);
+    }
+
+    @Test
+    @DisplayName("should_read_a_book_into_the_servlet_dto_and_cache_it")
+    public void getBookById() {
+        BookResponse book = reactiveBookService.getBookById(1L).block();
+
+        assertThat(book).isNotNull();
+        assertThat(book.getTitle()).isEqualTo("Effective Java");
+        assertThat(book.getVersion()).isEqualTo(1);
+        assertThat(book.getUpdatedAt()).isEqualTo(UPDATED_AT.atZone(ZoneId.systemDefault()).toInstant());
+        assertThat(cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(1L, BookResponse.class)).isEqualTo(book);
+    }
+
+    @Test
+    @DisplayName("should_serve_a_cached_book_without_reading_the_row")
+    public void getCachedBook() {
+        reactiveBookService.getBookById(1L).block();
+        databaseClient.sql("delete from book where book_id = 1").then().block();
+
+        assertThat(reactiveBookService.getBookById(1L).block().getTitle()).isEqualTo("Effective Java");
+    }
+
+    @Test
+    @DisplayName("should_fail_with_not_found_for_an_unknown_book")
+    public void getUnknownBook() {
+        Throwable error = catchThrowable(() -> reactiveBookService.getBookById(99L).block());
+
+        assertThat(error).isInstanceOf(ObjectNotFoundException.class).hasMessage("Book not found");
+    }
+
+    @Test
+    @DisplayName("should_page_books_filtered_by_author")
+    public void listBooksByAuthor() {
+        Page<BookResponse> books = reactiveBookService.listBooks("Bloch",
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "bookId"))).block();
+
+        assertThat(books.getContent()).extracting(BookResponse::getBookId).containsExactly(2L);
+        assertThat(books.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should_stream_every_book_in_order")
+    public void streamBooks() {
+        List<Long> ids = reactiveBookService.streamBooks(null, Sort.by(Sort.Direction.DESC, "bookId"))
+                .map(BookResponse::getBookId)
+                .toStream()
+                .collect(Collectors.toList());
+
+        assertThat(ids).containsExactly(3L, 2L, 1L);
+    }
+
+    private void insert(long bookId, String title, String author, String isbn) {
+        databaseClient.sql("insert into book (book_id, title, author, isbn, version, updated_at) "
+                        + "values (:bookId, :title, :author, :isbn, 1, :updatedAt)")
+                .bind("bookId", bookId)
+                .bind("title", title)
+                .bind("author", author)
+                .bind("isbn", isbn)
+                .bind("updatedAt", UPDATED_AT)
+                .then()
+                .block();
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.corcino.library.config;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Stands in for the Java 21 variant in builds without {@code -PvirtualThreads}, so turning virtual threads on there
+ * fails at startup instead of quietly running on platform threads.
+ */
+public final class VirtualThreadExecutors {
+
+    private VirtualThreadExecutors() {
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        throw new IllegalStateException("library.virtual-threads.enabled needs a build made with -PvirtualThreads");
+    }
+
+}
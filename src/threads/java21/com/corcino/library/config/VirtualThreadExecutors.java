@@ -0,0 +1,19 @@
+package com.corcino.library.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors running each task on a new virtual thread. Compiled with a Java 21 toolchain when the build is run with
+ * {@code -PvirtualThreads}; the rest of the application still targets 11 and only sees this signature.
+ */
+public final class VirtualThreadExecutors {
+
+    private VirtualThreadExecutors() {
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+
+}